@@ -0,0 +1,49 @@
+package com.library.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+
+/**
+ * A buffered upstream response. It is fresh for its freshness lifetime; after that it is
+ * only kept, if it has an ETag, so the next request can revalidate it instead of refetching.
+ */
+public final class CachedResponse {
+
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final Duration freshness;
+    private final long storedAt;
+
+    public CachedResponse(HttpHeaders headers, byte[] body, Duration freshness) {
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.freshness = freshness;
+        this.storedAt = System.nanoTime();
+    }
+
+    /** The same body with the validators and lifetime of a 304 answer to a revalidation. */
+    public CachedResponse revalidated(HttpHeaders notModifiedHeaders, Duration freshness) {
+        HttpHeaders merged = new HttpHeaders();
+        merged.putAll(headers);
+        for (String name : new String[] {HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL, HttpHeaders.EXPIRES, HttpHeaders.VARY}) {
+            if (notModifiedHeaders.containsKey(name)) {
+                merged.put(name, notModifiedHeaders.get(name));
+            }
+        }
+        return new CachedResponse(merged, body, freshness);
+    }
+
+    public boolean isFresh() {
+        return System.nanoTime() - storedAt < freshness.toNanos();
+    }
+
+    public long ageSeconds() {
+        return Duration.ofNanos(System.nanoTime() - storedAt).toSeconds();
+    }
+
+    public HttpHeaders getHeaders() { return headers; }
+    public byte[] getBody() { return body; }
+    public Duration getFreshness() { return freshness; }
+    public String getETag() { return headers.getETag(); }
+}
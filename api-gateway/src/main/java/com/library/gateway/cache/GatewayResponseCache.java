@@ -0,0 +1,94 @@
+package com.library.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Responses shared by every cached route, bounded by their total body size, plus the upstream
+ * fetches currently in flight so that concurrent misses for one key wait on a single request.
+ */
+@Component
+public class GatewayResponseCache {
+
+    /** Separates a key's route and path from its query and content negotiation. */
+    static final char QUERY_SEPARATOR = '?';
+
+    private final Cache<String, CachedResponse> entries;
+    private final ConcurrentMap<String, CompletableFuture<Optional<CachedResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final long maxEntrySize;
+
+    public GatewayResponseCache(@Value("${library.gateway.response-cache.max-size:128MB}") DataSize maxSize,
+                                @Value("${library.gateway.response-cache.max-entry-size:16MB}") DataSize maxEntrySize,
+                                @Value("${library.gateway.response-cache.stale-retention:5m}") Duration staleRetention) {
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<String, CachedResponse>weigher((key, response) -> key.length() + response.getBody().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        Duration retained = response.getETag() != null
+                                ? response.getFreshness().plus(staleRetention)
+                                : response.getFreshness();
+                        return retained.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, response, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public CachedResponse get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    public void put(String key, CachedResponse response) {
+        if (response.getBody().length <= maxEntrySize) {
+            entries.put(key, response);
+        }
+    }
+
+    /**
+     * Drops every response stored for a route and path, whatever its query or content
+     * negotiation. Walks all keys, which is fine for the rare writes that pass the gateway.
+     *
+     * @param pathKey the route id and raw path, separated by a space
+     */
+    public void invalidatePath(String pathKey) {
+        String prefix = pathKey + QUERY_SEPARATOR;
+        entries.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Registers the caller as the one fetching {@code key}.
+     *
+     * @return {@code null} if the caller should fetch and later {@link #complete} the key,
+     *         otherwise the fetch already in flight, empty if its response cannot be shared
+     */
+    public CompletableFuture<Optional<CachedResponse>> join(String key, CompletableFuture<Optional<CachedResponse>> pending) {
+        return inFlight.putIfAbsent(key, pending);
+    }
+
+    public void complete(String key, CompletableFuture<Optional<CachedResponse>> pending) {
+        inFlight.remove(key, pending);
+        pending.complete(Optional.empty());
+    }
+}
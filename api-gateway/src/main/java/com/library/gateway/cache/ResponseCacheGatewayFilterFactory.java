@@ -0,0 +1,334 @@
+package com.library.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caches successful JSON responses to GET requests that upstream marked as cacheable: for
+ * their {@code s-maxage}, then {@code max-age}, or until {@code Expires}, but never longer
+ * than the route's {@code ttl}. {@code no-cache} responses with an ETag are revalidated every
+ * time; responses without any of these, or with {@code no-store} or {@code private}, are not
+ * stored. Stale entries with an ETag are revalidated with {@code If-None-Match}. Concurrent
+ * requests for a key that is missing or stale wait for one upstream request. A successful
+ * POST, PUT, PATCH or DELETE drops the route's entries for its path. The {@code X-Cache}
+ * response header says how a request was served.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheGatewayFilterFactory.class);
+
+    private static final String CACHE_STATUS = "X-Cache";
+
+    private static final Set<HttpMethod> UNSAFE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH,
+            HttpMethod.DELETE);
+
+    /** Per-connection or per-exchange headers that must not be replayed from the cache. */
+    private static final List<String> UNCACHED_HEADERS = List.of(HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH, HttpHeaders.DATE, HttpHeaders.AGE);
+
+    private final GatewayResponseCache cache;
+
+    public ResponseCacheGatewayFilterFactory(GatewayResponseCache cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Ahead of NettyWriteResponseFilter so it writes the upstream body into our decorator.
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, config.getTtl()),
+                NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Duration ttl) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (UNSAFE_METHODS.contains(request.getMethod())) {
+            String path = pathKey(exchange);
+            exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (status != null && status.is2xxSuccessful()) {
+                    cache.invalidatePath(path);
+                }
+            }));
+            return chain.filter(exchange);
+        }
+        if (!HttpMethod.GET.equals(request.getMethod()) || bypassesCache(request.getHeaders())) {
+            return chain.filter(exchange);
+        }
+        String key = key(exchange);
+        // Copied first: mutating the upstream request's headers also changes this request's.
+        List<String> ifNoneMatch = List.copyOf(request.getHeaders().getIfNoneMatch());
+        CachedResponse cached = cache.get(key);
+        if (cached != null && cached.isFresh()) {
+            return write(exchange, ifNoneMatch, cached, "HIT");
+        }
+
+        CompletableFuture<Optional<CachedResponse>> pending = new CompletableFuture<>();
+        CompletableFuture<Optional<CachedResponse>> inFlight = cache.join(key, pending);
+        if (inFlight != null) {
+            // Followers never cancel the shared fetch; an unshareable response is fetched again.
+            return Mono.fromFuture(inFlight, true).flatMap(response -> response.isPresent()
+                    ? write(exchange, ifNoneMatch, response.get(), "COALESCED")
+                    : chain.filter(exchange));
+        }
+
+        String validator = cached != null ? cached.getETag() : null;
+        ServerHttpRequest upstreamRequest = request.mutate().headers(headers -> {
+            headers.remove(HttpHeaders.IF_NONE_MATCH);
+            headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+            if (validator != null) {
+                headers.setIfNoneMatch(validator);
+            }
+        }).build();
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), key, validator != null ? cached : null, ttl, pending);
+        return chain.filter(exchange.mutate().request(upstreamRequest).response(response).build())
+                .then(Mono.defer(() -> response.captured != null
+                        ? write(exchange, ifNoneMatch, response.captured, response.outcome)
+                        : Mono.empty()))
+                .doFinally(signal -> cache.complete(key, pending));
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, List<String> ifNoneMatch, CachedResponse cached, String outcome) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.putAll(cached.getHeaders());
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds()));
+        headers.set(CACHE_STATUS, outcome);
+        if (matches(ifNoneMatch, cached.getETag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(cached.getBody().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    private static String key(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders headers = request.getHeaders();
+        return pathKey(exchange) + GatewayResponseCache.QUERY_SEPARATOR + request.getURI().getRawQuery()
+                + ' ' + headers.getFirst(HttpHeaders.ACCEPT)
+                + ' ' + headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    /** The start of the keys of every cached response for the request's route and path. */
+    private static String pathKey(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return (route != null ? route.getId() : "") + ' ' + exchange.getRequest().getURI().getRawPath();
+    }
+
+    private static boolean bypassesCache(HttpHeaders headers) {
+        if (headers.containsKey(HttpHeaders.AUTHORIZATION)) {
+            return true;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && (hasDirective(cacheControl, "no-cache") || hasDirective(cacheControl, "no-store"));
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String eTag) {
+        if (eTag == null) {
+            return false;
+        }
+        String opaque = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*") || (candidate.startsWith("W/") ? candidate.substring(2) : candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * How long an upstream response may be served without asking upstream again, or
+     * {@code null} if it must not be stored at all. Responses that say nothing about
+     * their freshness are not stored.
+     */
+    static Duration freshness(HttpStatusCode status, HttpHeaders headers, Duration ttl) {
+        MediaType contentType = headers.getContentType();
+        if (status == null || status.value() != HttpStatus.OK.value()
+                || contentType == null || !contentType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || headers.getVary().contains("*")) {
+            return null;
+        }
+        Long maxAge = null;
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null) {
+            if (hasDirective(cacheControl, "no-store") || hasDirective(cacheControl, "private")) {
+                return null;
+            }
+            maxAge = hasDirective(cacheControl, "no-cache") ? Long.valueOf(0) : seconds(cacheControl, "s-maxage");
+            if (maxAge == null) {
+                maxAge = seconds(cacheControl, "max-age");
+            }
+        }
+        if (maxAge == null && headers.containsKey(HttpHeaders.EXPIRES)) {
+            // An unparsable Expires means already expired
+            long expires = headers.getExpires();
+            maxAge = expires < 0 ? 0 : Math.max(0, (expires - System.currentTimeMillis()) / 1000);
+        }
+        if (maxAge == null) {
+            return null;
+        }
+        Duration freshness = maxAge < ttl.toSeconds() ? Duration.ofSeconds(maxAge) : ttl;
+        return freshness.isZero() && headers.getETag() == null ? null : freshness;
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        for (String part : cacheControl.split(",")) {
+            if (part.trim().toLowerCase(Locale.ROOT).equals(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Long seconds(String cacheControl, String directive) {
+        for (String part : cacheControl.split(",")) {
+            String[] pair = part.trim().split("=", 2);
+            if (pair.length == 2 && pair[0].equalsIgnoreCase(directive)) {
+                try {
+                    return Math.max(0, Long.parseLong(pair[1].trim()));
+                } catch (NumberFormatException e) {
+                    return 0L;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static HttpHeaders storedHeaders(HttpHeaders upstream) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(upstream);
+        UNCACHED_HEADERS.forEach(headers::remove);
+        headers.remove(CACHE_STATUS);
+        return headers;
+    }
+
+    /**
+     * Buffers a cacheable upstream body instead of writing it, so the filter can store it and
+     * hand it to the waiting requests. Anything else streams through unchanged.
+     */
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final CachedResponse stale;
+        private final Duration ttl;
+        private final CompletableFuture<Optional<CachedResponse>> pending;
+        private CachedResponse captured;
+        private String outcome;
+
+        CapturingResponse(ServerHttpResponse delegate, String key, CachedResponse stale, Duration ttl,
+                          CompletableFuture<Optional<CachedResponse>> pending) {
+            super(delegate);
+            this.key = key;
+            this.stale = stale;
+            this.ttl = ttl;
+            this.pending = pending;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (revalidated()) {
+                return Flux.from(body).doOnNext(DataBufferUtils::release).then();
+            }
+            Duration freshness = freshness(getStatusCode(), getHeaders(), ttl);
+            if (freshness == null) {
+                pending.complete(Optional.empty());
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body)
+                    .map(buffer -> {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .doOnNext(bytes -> store(new CachedResponse(storedHeaders(getHeaders()), bytes, freshness), "MISS"))
+                    .then();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            pending.complete(Optional.empty());
+            return super.writeAndFlushWith(body);
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (revalidated()) {
+                return Mono.empty();
+            }
+            pending.complete(Optional.empty());
+            return super.setComplete();
+        }
+
+        /** Keeps the stale body if upstream answered the revalidation with 304. */
+        private boolean revalidated() {
+            HttpStatusCode status = getStatusCode();
+            if (stale == null || status == null || status.value() != HttpStatus.NOT_MODIFIED.value()) {
+                return false;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(stale.getHeaders());
+            headers.putAll(getHeaders());
+            headers.setContentType(stale.getHeaders().getContentType());
+            Duration freshness = freshness(HttpStatus.OK, headers, ttl);
+            store(stale.revalidated(getHeaders(), freshness != null ? freshness : Duration.ZERO), "REVALIDATED");
+            return true;
+        }
+
+        private void store(CachedResponse response, String outcome) {
+            this.captured = response;
+            this.outcome = outcome;
+            cache.put(key, response);
+            pending.complete(Optional.of(response));
+            logger.debug("{} {} for {}", outcome, key, response.getFreshness());
+        }
+    }
+
+    public static class Config {
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public Duration getTtl() { return ttl; }
+        public void setTtl(Duration ttl) { this.ttl = ttl; }
+    }
+}
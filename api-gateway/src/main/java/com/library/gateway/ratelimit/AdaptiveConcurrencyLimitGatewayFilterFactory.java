@@ -0,0 +1,76 @@
+package com.library.gateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+
+/**
+ * Bounds the requests a route has in flight upstream with a {@link GradientLimit}. Requests
+ * over the limit are answered 503 with {@code Retry-After} at once, rather than queued
+ * behind a backend that is already saturated.
+ */
+@Component
+public class AdaptiveConcurrencyLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyLimitGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimitGatewayFilterFactory.class);
+
+    public AdaptiveConcurrencyLimitGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        GradientLimit limit = new GradientLimit(config);
+        String retryAfter = Long.toString(Math.max(1, config.getRetryAfter().toSeconds()));
+        return (exchange, chain) -> {
+            if (!limit.tryAcquire()) {
+                logger.debug("Shedding {} with {} of {} requests in flight",
+                        exchange.getRequest().getPath(), limit.getInFlight(), limit.getLimit());
+                ServerWebExchangeUtils.setResponseStatus(exchange, HttpStatus.SERVICE_UNAVAILABLE);
+                ServerHttpResponse response = exchange.getResponse();
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+                return response.setComplete();
+            }
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> limit.release(signal == SignalType.CANCEL ? -1 : System.nanoTime() - start));
+        };
+    }
+
+    public static class Config {
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+        /** How much slower than usual upstream may get before the limit shrinks. */
+        private double tolerance = 1.5;
+        /** Weight of each window's target in the new limit. */
+        private double smoothing = 0.2;
+        private Duration window = Duration.ofMillis(100);
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+        public double getTolerance() { return tolerance; }
+        public void setTolerance(double tolerance) { this.tolerance = tolerance; }
+        public double getSmoothing() { return smoothing; }
+        public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+        public Duration getWindow() { return window; }
+        public void setWindow(Duration window) { this.window = window; }
+        public Duration getRetryAfter() { return retryAfter; }
+        public void setRetryAfter(Duration retryAfter) { this.retryAfter = retryAfter; }
+    }
+}
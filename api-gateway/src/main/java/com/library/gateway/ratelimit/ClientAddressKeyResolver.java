@@ -0,0 +1,36 @@
+package com.library.gateway.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Identifies clients by IP address. Behind {@code library.gateway.rate-limit.trusted-proxies}
+ * load balancers, the address is taken from that many hops back in {@code X-Forwarded-For}.
+ */
+@Component
+public class ClientAddressKeyResolver implements KeyResolver {
+
+    private final RemoteAddressResolver addressResolver;
+
+    public ClientAddressKeyResolver(@Value("${library.gateway.rate-limit.trusted-proxies:0}") int trustedProxies) {
+        this.addressResolver = trustedProxies > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies)
+                : new RemoteAddressResolver() { };
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        InetSocketAddress address = addressResolver.resolve(exchange);
+        if (address == null) {
+            return Mono.empty();
+        }
+        return Mono.just(address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString());
+    }
+}
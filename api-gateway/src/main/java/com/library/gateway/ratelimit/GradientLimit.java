@@ -0,0 +1,86 @@
+package com.library.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrency limit that follows upstream latency. Once per sampling window, the window's
+ * mean response time is compared with a slow moving average. While latency stays within the
+ * tolerance, the limit grows by about its square root. When requests start queueing
+ * upstream, the limit shrinks in proportion, down to half per window.
+ */
+final class GradientLimit {
+
+    /** Windows averaged into the long-term response time. */
+    private static final int LONG_WINDOWS = 60;
+
+    private final AdaptiveConcurrencyLimitGatewayFilterFactory.Config config;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder windowNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private volatile double limit;
+    private volatile double longRtt;
+
+    GradientLimit(AdaptiveConcurrencyLimitGatewayFilterFactory.Config config) {
+        this.config = config;
+        this.limit = config.getInitialLimit();
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** @param rttNanos the request's response time, or a negative value if it was cancelled */
+    void release(long rttNanos) {
+        int concurrent = inFlight.getAndDecrement();
+        if (rttNanos < 0) {
+            return;
+        }
+        windowNanos.add(rttNanos);
+        windowSamples.increment();
+        long start = windowStart.get();
+        long now = System.nanoTime();
+        // Only the request that closes the window updates the limit.
+        if (now - start >= config.getWindow().toNanos() && windowStart.compareAndSet(start, now)) {
+            update(concurrent);
+        }
+    }
+
+    private void update(int concurrent) {
+        long samples = windowSamples.sumThenReset();
+        long nanos = windowNanos.sumThenReset();
+        if (samples == 0) {
+            return;
+        }
+        double shortRtt = (double) nanos / samples;
+        double longRtt = this.longRtt == 0 ? shortRtt : this.longRtt + (shortRtt - this.longRtt) / LONG_WINDOWS;
+        if (longRtt / shortRtt > 2) {
+            // Latency dropped for good, e.g. after a slow warm-up; do not keep comparing against it.
+            longRtt *= 0.95;
+        }
+        this.longRtt = longRtt;
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, config.getTolerance() * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        if (target > current && concurrent < current / 2) {
+            // Too few requests in flight to tell whether upstream could take more.
+            return;
+        }
+        double next = current * (1 - config.getSmoothing()) + target * config.getSmoothing();
+        limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), next));
+    }
+
+    int getLimit() { return (int) limit; }
+    int getInFlight() { return inFlight.get(); }
+}
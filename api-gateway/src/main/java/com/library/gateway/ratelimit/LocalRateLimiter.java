@@ -0,0 +1,89 @@
+package com.library.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.constraints.Min;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process token buckets for the {@code RequestRateLimiter} filter: one per client and
+ * route, and optionally one shared by all clients of a route. Configured per route with
+ * {@code local-rate-limiter.*} filter arguments. Buckets are not shared between gateway
+ * instances, so each instance enforces the limits on its own traffic.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    private final Cache<String, TokenBucket> clientBuckets = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    private final ConcurrentMap<String, TokenBucket> routeBuckets = new ConcurrentHashMap<>();
+    private final Config defaultConfig = new Config();
+
+    public LocalRateLimiter(ConfigurationService configurationService) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long now = System.nanoTime();
+        long remaining = clientBuckets.get(routeId + ' ' + id, key -> new TokenBucket())
+                .tryAcquire(now, config.getReplenishRate(), config.getBurstCapacity());
+        if (remaining >= 0 && config.getRouteReplenishRate() > 0) {
+            long routeRemaining = routeBuckets.computeIfAbsent(routeId, key -> new TokenBucket())
+                    .tryAcquire(now, config.getRouteReplenishRate(), config.getRouteBurstCapacity());
+            if (routeRemaining < 0) {
+                remaining = routeRemaining;
+            }
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("X-RateLimit-Replenish-Rate", Integer.toString(config.getReplenishRate()));
+        headers.put("X-RateLimit-Burst-Capacity", Integer.toString(config.getBurstCapacity()));
+        headers.put("X-RateLimit-Remaining", Long.toString(Math.max(0, remaining)));
+        if (remaining < 0) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(-remaining + TimeUnit.SECONDS.toNanos(1) - 1));
+            headers.put("Retry-After", Long.toString(seconds));
+            return Mono.just(new Response(false, headers));
+        }
+        return Mono.just(new Response(true, headers));
+    }
+
+    @Validated
+    public static class Config {
+        /** Requests per second each client may make on the route. */
+        @Min(1)
+        private int replenishRate = 50;
+        /** Requests a client may make at once after being idle. */
+        @Min(1)
+        private int burstCapacity = 100;
+        /** Requests per second for all clients of the route together; 0 means no route limit. */
+        @Min(0)
+        private int routeReplenishRate = 0;
+        @Min(1)
+        private int routeBurstCapacity = 1;
+
+        public int getReplenishRate() { return replenishRate; }
+        public void setReplenishRate(int replenishRate) { this.replenishRate = replenishRate; }
+        public int getBurstCapacity() { return burstCapacity; }
+        public void setBurstCapacity(int burstCapacity) { this.burstCapacity = burstCapacity; }
+        public int getRouteReplenishRate() { return routeReplenishRate; }
+        public void setRouteReplenishRate(int routeReplenishRate) { this.routeReplenishRate = routeReplenishRate; }
+        public int getRouteBurstCapacity() { return routeBurstCapacity; }
+        public void setRouteBurstCapacity(int routeBurstCapacity) { this.routeBurstCapacity = routeBurstCapacity; }
+    }
+}
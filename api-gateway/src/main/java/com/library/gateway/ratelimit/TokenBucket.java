@@ -0,0 +1,32 @@
+package com.library.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept as the time at which it would be full again (the generic cell rate
+ * algorithm), so taking a token is a single compare-and-set.
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt = new AtomicLong(System.nanoTime());
+
+    /**
+     * @return how many tokens are left if one was taken, otherwise minus the nanoseconds
+     *         until the next token is available
+     */
+    long tryAcquire(long now, double tokensPerSecond, int capacity) {
+        long interval = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        long tolerance = interval * capacity;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            long excess = next - now - tolerance;
+            if (excess > 0) {
+                return -excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return -excess / interval;
+            }
+        }
+    }
+}
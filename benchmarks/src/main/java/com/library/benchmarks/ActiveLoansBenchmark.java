@@ -0,0 +1,105 @@
+package com.library.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loan-service's active-loans query ({@code LoanRepository.findActiveWithBookTitle}) against
+ * PostgreSQL, with a fixed number of active loans in a growing history, once on bare tables
+ * and once with {@code db/postgresql/loan-indexes.sql} applied. With the indexes the time should stay
+ * flat as the history grows. Needs a database, by default the one the services use
+ * ({@code -Dbenchmarks.db-url}, {@code -Dbenchmarks.db-username}, {@code -Dbenchmarks.db-password});
+ * everything is created in the {@code loan_benchmark} schema and dropped afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActiveLoansBenchmark {
+
+    private static final String SCHEMA = "loan_benchmark";
+    private static final int ACTIVE_LOANS = 2_000;
+    private static final int BOOKS = 100_000;
+
+    private static final String ACTIVE_LOANS_QUERY = """
+            SELECT l.id, l.book_id, s.title, l.borrower_name, l.loan_date, l.due_date, l.return_date, l.returned
+            FROM loans l LEFT JOIN book_summary s ON s.id = l.book_id
+            WHERE l.returned = false""";
+
+    @Param({"100000", "1000000", "10000000"})
+    private int history;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement activeLoans;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmarks.db-url", "jdbc:postgresql://localhost:5433/librarydb"),
+                System.getProperty("benchmarks.db-username", "postgres"),
+                System.getProperty("benchmarks.db-password", "postgres"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+            statement.execute("""
+                    CREATE TABLE loans (id bigint PRIMARY KEY, book_id bigint NOT NULL,
+                        borrower_name varchar(255) NOT NULL, loan_date date NOT NULL, due_date date NOT NULL,
+                        return_date date, returned boolean NOT NULL)""");
+            statement.execute("CREATE TABLE book_summary (id bigint PRIMARY KEY, title varchar(255) NOT NULL)");
+            statement.execute("INSERT INTO book_summary SELECT g, 'Title ' || g FROM generate_series(1, " + BOOKS + ") g");
+            // Active loans are spread evenly through the history; the rest were returned.
+            int stride = Math.max(1, history / ACTIVE_LOANS);
+            statement.execute("""
+                    INSERT INTO loans
+                    SELECT g, g %% %d + 1, 'Borrower ' || g %% 20000, current_date - (g %% 3650),
+                        current_date - (g %% 3650) + 14,
+                        CASE WHEN g %% %d = 0 THEN NULL ELSE current_date - (g %% 3650) + 7 END,
+                        g %% %d <> 0
+                    FROM generate_series(1, %d) g""".formatted(BOOKS, stride, stride, history));
+        }
+        if (indexed) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/postgresql/loan-indexes.sql"));
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE loans");
+            statement.execute("ANALYZE book_summary");
+        }
+        activeLoans = connection.prepareStatement(ACTIVE_LOANS_QUERY);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int activeLoans(Blackhole blackhole) throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = activeLoans.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getString(3));
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,31 @@
+package com.library.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks jar. Takes the usual JMH arguments, but unless a
+ * result format is given it writes JSON to {@code benchmark-results/<label>.json},
+ * where the label comes from {@code -Dbenchmarks.label} (e.g. the commit id).
+ */
+public final class BenchmarkRunner {
+
+    private static final Path RESULTS_DIR = Path.of("benchmark-results");
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf") && !jmhArgs.contains("-rff")) {
+            Files.createDirectories(RESULTS_DIR);
+            String label = System.getProperty("benchmarks.label", "latest");
+            jmhArgs.addAll(0, List.of("-rf", "json", "-rff", RESULTS_DIR.resolve(label + ".json").toString()));
+        }
+        Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
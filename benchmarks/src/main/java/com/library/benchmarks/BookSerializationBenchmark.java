@@ -0,0 +1,54 @@
+package com.library.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.book.entity.Book;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing {@link Book} entities as JSON. {@code withAuthor} resolves
+ * {@code authorId}/{@code authorName} through the loaded author, {@code detached}
+ * through the transient fields, which is what the export and batch paths hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int bookCount;
+
+    private final ObjectMapper objectMapper = Catalogs.objectMapper();
+    private List<Book> withAuthor;
+    private List<Book> detached;
+
+    @Setup
+    public void setUp() {
+        withAuthor = Catalogs.bookEntities(bookCount, true);
+        detached = Catalogs.bookEntities(bookCount, false);
+    }
+
+    @Benchmark
+    public byte[] serializeWithAuthor() throws Exception {
+        return objectMapper.writeValueAsBytes(withAuthor);
+    }
+
+    @Benchmark
+    public byte[] serializeDetached() throws Exception {
+        return objectMapper.writeValueAsBytes(detached);
+    }
+
+    @Benchmark
+    public long authorAccessors() {
+        long sum = 0;
+        for (Book book : withAuthor) {
+            sum += book.getAuthorId() + book.getAuthorName().length();
+        }
+        return sum;
+    }
+}
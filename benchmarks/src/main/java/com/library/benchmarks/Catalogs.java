@@ -0,0 +1,116 @@
+package com.library.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.library.book.entity.Author;
+import com.library.book.entity.Book;
+import com.library.loan.entity.Loan;
+import com.library.recommendation.dto.BookDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic catalogs so runs are comparable across commits.
+ */
+final class Catalogs {
+
+    private static final long SEED = 42L;
+    private static final int AUTHORS = 5_000;
+    private static final int BORROWERS = 1_000;
+    private static final LocalDate FIRST_LOAN_DATE = LocalDate.of(2024, 1, 1);
+
+    private Catalogs() {}
+
+    static List<BookDTO> books(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<BookDTO> books = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            long authorId = 1 + random.nextInt(AUTHORS);
+            BookDTO book = new BookDTO();
+            book.setId((long) i);
+            book.setTitle("Title " + i);
+            book.setIsbn(String.format("978-%010d", i));
+            book.setPublicationYear(1900 + random.nextInt(126));
+            book.setAuthorId(authorId);
+            book.setAuthorName("Author " + authorId);
+            books.add(book);
+        }
+        return books;
+    }
+
+    /**
+     * @param withAuthor attach an {@link Author} as a loaded entity would have one;
+     *                   otherwise only the transient id and name are set
+     */
+    static List<Book> bookEntities(int size, boolean withAuthor) {
+        List<Book> books = new ArrayList<>(size);
+        for (BookDTO dto : books(size)) {
+            Book book = new Book(dto.getTitle(), dto.getIsbn(), dto.getPublicationYear());
+            book.setId(dto.getId());
+            if (withAuthor) {
+                Author author = new Author(dto.getAuthorName(), "French");
+                author.setId(dto.getAuthorId());
+                book.setAuthor(author);
+            } else {
+                book.setAuthorId(dto.getAuthorId());
+                book.setAuthorName(dto.getAuthorName());
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+    /**
+     * Loans over a catalog ten times their number, roughly a third of them returned.
+     */
+    static List<Loan> loans(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Loan> loans = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Loan loan = new Loan(1L + random.nextInt(size * 10), "Borrower " + random.nextInt(BORROWERS));
+            loan.setId((long) i);
+            loan.setLoanDate(FIRST_LOAN_DATE.plusDays(random.nextInt(365)));
+            loan.setDueDate(loan.getLoanDate().plusDays(14));
+            if (random.nextInt(3) == 0) {
+                loan.setReturned(true);
+                loan.setReturnDate(loan.getLoanDate().plusDays(random.nextInt(21)));
+            }
+            loans.add(loan);
+        }
+        return loans;
+    }
+
+    /**
+     * Book metadata for the given loans, as loan-service's book cache would return it.
+     */
+    static Map<Long, com.library.loan.dto.BookDTO> loanBooks(List<Loan> loans) {
+        Map<Long, com.library.loan.dto.BookDTO> books = new HashMap<>();
+        for (Loan loan : loans) {
+            books.computeIfAbsent(loan.getBookId(), id -> {
+                com.library.loan.dto.BookDTO book = new com.library.loan.dto.BookDTO();
+                book.setId(id);
+                book.setTitle("Title " + id);
+                book.setIsbn(String.format("978-%010d", id));
+                return book;
+            });
+        }
+        return books;
+    }
+
+    /**
+     * Jackson set up like the services' Spring Boot mappers: java.time as ISO strings.
+     */
+    static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.library.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.recommendation.client.BookClient;
+import com.library.recommendation.dto.BookDTO;
+import com.library.recommendation.dto.CursorPage;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recommendation-service's {@link BookClient} decoding the catalog from a local stub
+ * of book-service, once as a single {@code List<BookDTO>} and once walked page by page.
+ * Responses are serialized up front so the stub itself costs little more than the copy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeignDecodeBenchmark {
+
+    private static final int PAGE_SIZE = 500;
+
+    @Param({"1000", "10000", "100000"})
+    private int catalogSize;
+
+    private HttpServer server;
+    private BookClient bookClient;
+    private byte[] fullList;
+    private List<byte[]> pages;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Catalogs.objectMapper();
+        List<BookDTO> books = Catalogs.books(catalogSize);
+        fullList = objectMapper.writeValueAsBytes(books);
+        pages = new ArrayList<>();
+        for (int from = 0; from < books.size(); from += PAGE_SIZE) {
+            int to = Math.min(from + PAGE_SIZE, books.size());
+            CursorPage<BookDTO> page = new CursorPage<>();
+            page.setItems(books.subList(from, to));
+            page.setNextCursor(to < books.size() ? String.valueOf(pages.size() + 1) : null);
+            pages.add(objectMapper.writeValueAsBytes(page));
+        }
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/books", this::handle);
+        server.start();
+
+        HttpMessageConverters converters =
+                new HttpMessageConverters(false, List.of(new MappingJackson2HttpMessageConverter(objectMapper)));
+        bookClient = Feign.builder()
+                .contract(new SpringMvcContract())
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(() -> converters)))
+                .target(BookClient.class, "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Benchmark
+    public List<BookDTO> decodeFullList() {
+        return bookClient.getAllBooks();
+    }
+
+    @Benchmark
+    public List<BookDTO> decodePaged() {
+        return bookClient.getAllBooksByPage(PAGE_SIZE);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        byte[] body = query == null ? fullList : pages.get(pageIndex(query));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static int pageIndex(String query) {
+        for (String param : query.split("&")) {
+            if (param.startsWith("after=")) {
+                return Integer.parseInt(param.substring("after=".length()));
+            }
+        }
+        return 0;
+    }
+}
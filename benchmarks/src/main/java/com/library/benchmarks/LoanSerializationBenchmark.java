@@ -0,0 +1,59 @@
+package com.library.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.loan.dto.BookDTO;
+import com.library.loan.dto.LoanWithBookDTO;
+import com.library.loan.entity.Loan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-process half of {@code GET /api/loans}: joining loans with cached book
+ * metadata into {@link LoanWithBookDTO}s and writing the list as JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int loanCount;
+
+    private final ObjectMapper objectMapper = Catalogs.objectMapper();
+    private List<Loan> loans;
+    private Map<Long, BookDTO> booksById;
+    private List<LoanWithBookDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        loans = Catalogs.loans(loanCount);
+        booksById = Catalogs.loanBooks(loans);
+        dtos = toDtos();
+    }
+
+    @Benchmark
+    public List<LoanWithBookDTO> toDtos() {
+        List<LoanWithBookDTO> result = new ArrayList<>(loans.size());
+        for (Loan loan : loans) {
+            result.add(new LoanWithBookDTO(loan, booksById.get(loan.getBookId())));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] toDtosAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(toDtos());
+    }
+}
@@ -0,0 +1,68 @@
+package com.library.benchmarks;
+
+import com.library.recommendation.dto.BookDTO;
+import com.library.recommendation.service.CatalogSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Author and recent-publication recommendations: a linear stream filter over the
+ * whole catalog, as the service used to do per request, against the snapshot indexes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecommendationFilterBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int catalogSize;
+
+    @Param({"Author 42"})
+    private String authorQuery;
+
+    private List<BookDTO> books;
+    private CatalogSnapshot snapshot;
+    private int sinceYear;
+
+    @Setup
+    public void setUp() {
+        books = Catalogs.books(catalogSize);
+        snapshot = new CatalogSnapshot(books, Instant.now());
+        sinceYear = Year.now().getValue() - 10;
+    }
+
+    @Benchmark
+    public List<BookDTO> filterByAuthor() {
+        String query = authorQuery.toLowerCase();
+        return books.stream()
+                .filter(book -> book.getAuthorName() != null
+                        && book.getAuthorName().toLowerCase().contains(query))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BookDTO> snapshotByAuthor() {
+        return snapshot.byAuthor(authorQuery);
+    }
+
+    @Benchmark
+    public List<BookDTO> filterRecent() {
+        return books.stream()
+                .filter(book -> book.getPublicationYear() != null
+                        && book.getPublicationYear() >= sinceYear)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BookDTO> snapshotRecent() {
+        return snapshot.publishedSince(sinceYear);
+    }
+}
@@ -0,0 +1,53 @@
+package com.library.benchmarks;
+
+import com.library.recommendation.dto.BookDTO;
+import com.library.recommendation.service.CatalogSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Random recommendations: the original copy-and-shuffle of the whole catalog
+ * against the O(k) partial Fisher–Yates draw from a snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecommendationSamplingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int catalogSize;
+
+    @Param({"5"})
+    private int count;
+
+    private List<BookDTO> books;
+    private CatalogSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        books = Catalogs.books(catalogSize);
+        snapshot = new CatalogSnapshot(books, Instant.now());
+    }
+
+    @Benchmark
+    public List<BookDTO> shuffleWholeCatalog() {
+        List<BookDTO> copy = new ArrayList<>(books);
+        Collections.shuffle(copy);
+        return copy.stream().limit(count).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BookDTO> sampleFromSnapshot() {
+        return snapshot.sample(count, ThreadLocalRandom.current());
+    }
+}
@@ -1,10 +1,16 @@
 package com.library.book.controller;
 
+import com.library.book.dto.CursorPage;
+import com.library.book.dto.KeysetCursor;
 import com.library.book.entity.Author;
 import com.library.book.repository.AuthorRepository;
+import com.library.book.service.AuthorService;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -13,14 +19,52 @@ import java.util.List;
 public class AuthorController {
 
     private final AuthorRepository authorRepository;
+    private final AuthorService authorService;
+    private final CatalogResponseCache catalogResponses;
 
-    public AuthorController(AuthorRepository authorRepository) {
+    public AuthorController(AuthorRepository authorRepository, AuthorService authorService,
+                            CatalogResponseCache catalogResponses) {
         this.authorRepository = authorRepository;
+        this.authorService = authorService;
+        this.catalogResponses = catalogResponses;
     }
 
     @GetMapping
-    public List<Author> getAllAuthors() {
-        return authorRepository.findAll();
+    public ResponseEntity<byte[]> getAllAuthors(WebRequest request) {
+        return catalogResponses.respond(request, "authors", authorRepository::findAll);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<byte[]> getAuthorsPage(@RequestParam("limit") int limit,
+                                                 @RequestParam(value = "after", required = false) String after,
+                                                 @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                 WebRequest request) {
+        int size = CursorPage.clampLimit(limit);
+        return catalogResponses.respond(request, "authors?limit=" + size + "&after=" + after + "&sort=" + sort,
+                () -> loadAuthorsPage(size, after, sort));
+    }
+
+    private CursorPage<Author> loadAuthorsPage(int size, String after, String sort) {
+        Pageable fetch = PageRequest.ofSize(size + 1);
+        switch (sort) {
+            case "id": {
+                Long afterId = after != null ? KeysetCursor.decodeId(after) : 0L;
+                return CursorPage.of(authorRepository.findByIdGreaterThanOrderByIdAsc(afterId, fetch), size,
+                        author -> String.valueOf(author.getId()));
+            }
+            case "name": {
+                List<Author> rows;
+                if (after == null) {
+                    rows = authorRepository.findAllByOrderByNameAscIdAsc(fetch);
+                } else {
+                    KeysetCursor cursor = KeysetCursor.decode(after);
+                    rows = authorRepository.findPageOrderByName(cursor.getKey(), cursor.getId(), fetch);
+                }
+                return CursorPage.of(rows, size, author -> new KeysetCursor(author.getName(), author.getId()).encode());
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
     }
 
     @GetMapping("/{id}")
@@ -32,28 +76,21 @@ public class AuthorController {
 
     @PostMapping
     public ResponseEntity<Author> createAuthor(@Valid @RequestBody Author author) {
-        Author savedAuthor = authorRepository.save(author);
-        return ResponseEntity.ok(savedAuthor);
+        return ResponseEntity.ok(authorService.createAuthor(author));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Author> updateAuthor(@PathVariable("id") Long id, @Valid @RequestBody Author authorDetails) {
-        return authorRepository.findById(id)
-                .map(author -> {
-                    author.setName(authorDetails.getName());
-                    author.setNationality(authorDetails.getNationality());
-                    return ResponseEntity.ok(authorRepository.save(author));
-                })
+        return authorService.updateAuthor(id, authorDetails)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteAuthor(@PathVariable("id") Long id) {
-        return authorRepository.findById(id)
-                .map(author -> {
-                    authorRepository.delete(author);
-                    return ResponseEntity.ok().<Void>build();
-                })
-                .orElse(ResponseEntity.notFound().build());
+        if (authorService.deleteAuthor(id)) {
+            return ResponseEntity.ok().build();
+        }
+        return ResponseEntity.notFound().build();
     }
 }
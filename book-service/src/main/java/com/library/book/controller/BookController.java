@@ -1,27 +1,178 @@
 package com.library.book.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.book.dto.CursorPage;
+import com.library.book.dto.ImportSummary;
 import com.library.book.entity.Book;
 import com.library.book.service.BookService;
+import com.library.book.service.CatalogImport;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
     private final BookService bookService;
+    private final CatalogImport catalogImport;
+    private final CatalogResponseCache catalogResponses;
+    private final ObjectWriter exportWriter;
+    private final JsonFactory jsonFactory;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, CatalogImport catalogImport,
+                          CatalogResponseCache catalogResponses, ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.catalogImport = catalogImport;
+        this.catalogResponses = catalogResponses;
+        this.exportWriter = objectMapper.writerFor(Book.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.jsonFactory = objectMapper.getFactory();
     }
 
     @GetMapping
-    public List<Book> getAllBooks() {
-        return bookService.getAllBooks();
+    public ResponseEntity<byte[]> getAllBooks(WebRequest request) {
+        return catalogResponses.respond(request, "books", bookService::getAllBooks);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<byte[]> getBooksPage(@RequestParam("limit") int limit,
+                                               @RequestParam(value = "after", required = false) String after,
+                                               @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                               WebRequest request) {
+        int size = CursorPage.clampLimit(limit);
+        return catalogResponses.respond(request, "books?limit=" + size + "&after=" + after + "&sort=" + sort,
+                () -> bookService.getBooksPage(size, after, sort));
+    }
+
+    @GetMapping("/search")
+    public CursorPage<Book> searchBooks(@RequestParam("q") String query,
+                                        @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                        @RequestParam(value = "after", required = false) String after) {
+        return bookService.searchBooks(query, CursorPage.clampLimit(limit), after);
+    }
+
+    /**
+     * Streams the catalog as newline-delimited JSON in id order. Pass the last id
+     * received as {@code after} to resume an interrupted export.
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(value = "after", defaultValue = "0") Long after,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, EXPORT_BUFFER_SIZE) : out;
+            try (JsonGenerator generator = jsonFactory.createGenerator(target)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                bookService.exportBooks(after, book -> {
+                    try {
+                        exportWriter.writeValue(generator, book);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            if (target instanceof GZIPOutputStream gzipTarget) {
+                gzipTarget.finish();
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} allows gzip: named with a non-zero q-value, or
+     * covered by a non-zero {@code *} when gzip is not named at all.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase();
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = q;
+            } else if (coding.equals("*")) {
+                any = q;
+            }
+        }
+        Double q = gzip != null ? gzip : any;
+        return q != null && q > 0;
+    }
+
+    /**
+     * Upserts the newline-delimited JSON books in the request body by ISBN, reading them as
+     * they arrive; the export's output can be imported as it is. Authors are given by
+     * {@code authorName}. Invalid rows are skipped and listed in the response.
+     */
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public ImportSummary importBooks(InputStream body) throws IOException {
+        return catalogImport.importBooks(body, CatalogImport.Format.NDJSON);
+    }
+
+    /**
+     * Like the NDJSON import, for CSV with a header row naming the columns
+     * ({@code title,isbn,publicationYear,copies,authorName}).
+     */
+    @PostMapping(value = "/import", consumes = CSV)
+    public ImportSummary importBooksCsv(InputStream body) throws IOException {
+        return catalogImport.importBooks(body, CatalogImport.Format.CSV);
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<List<Book>> getBooksByIdsParam(@RequestParam("ids") List<Long> ids) {
+        return getBooksByIds(ids);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<Book>> getBooksByIds(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bookService.getBooksByIds(ids));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,97 @@
+package com.library.book.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.book.service.CatalogVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Serves catalog reads as JSON bytes cached per {@link CatalogVersion}. A matching
+ * {@code If-None-Match} gets a 304 without loading anything. Otherwise the response
+ * is serialized once per version and request, and concurrent misses wait for the same
+ * computation. Entries of older versions are never read again and age out.
+ * Clients revalidate every time; shared caches such as the gateway may reuse a response
+ * for {@code library.catalog-cache.shared-max-age}.
+ */
+@Component
+public class CatalogResponseCache {
+
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final AsyncCache<String, byte[]> cache;
+    private final CacheControl cacheControl;
+
+    public CatalogResponseCache(CatalogVersion catalogVersion, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${library.catalog-cache.max-size:64MB}") DataSize maxSize,
+                                @Value("${library.catalog-cache.ttl:10m}") Duration ttl,
+                                @Value("${library.catalog-cache.shared-max-age:5s}") Duration sharedMaxAge) {
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<String, byte[]>weigher((key, bytes) -> bytes.length)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalog-responses");
+        this.cacheControl = CacheControl.maxAge(Duration.ZERO).sMaxAge(sharedMaxAge);
+    }
+
+    /**
+     * @param key identifies the response within a catalog version, e.g. the route and its parameters
+     * @param body loads the value to serialize; only called on a cache miss
+     * @return the response, or {@code null} once a 304 has been written
+     */
+    public ResponseEntity<byte[]> respond(WebRequest request, String key, Supplier<?> body) {
+        long version = catalogVersion.current();
+        String eTag = catalogVersion.eTag(version);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(serialized(version + " " + key, body));
+    }
+
+    private byte[] serialized(String key, Supplier<?> body) {
+        // Computed outside the map's lock so a slow query does not block other keys.
+        CompletableFuture<byte[]> pending = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = cache.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(body.get());
+            pending.complete(bytes);
+            return bytes;
+        } catch (JsonProcessingException e) {
+            pending.completeExceptionally(e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.library.book.controller;
+
+import com.library.book.dto.ChangeBatch;
+import com.library.book.service.ChangeFeed;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+
+/**
+ * Change feed of the catalog for services that keep a local copy of it. Pass the
+ * {@code seq} of the last change applied as {@code since}; {@code lastSeq} of any
+ * response is a valid starting point after a full load.
+ */
+@RestController
+@RequestMapping("/api/books/changes")
+public class ChangeFeedController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final ChangeFeed changeFeed;
+    private final Duration maxWait;
+
+    public ChangeFeedController(ChangeFeed changeFeed,
+                                @Value("${library.change-feed.max-wait:30s}") Duration maxWait) {
+        this.changeFeed = changeFeed;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * @param wait seconds to wait for a change when there is none after {@code since} yet
+     */
+    @GetMapping
+    public DeferredResult<ChangeBatch> getChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+                                                  @RequestParam(value = "limit", defaultValue = "500") int limit,
+                                                  @RequestParam(value = "wait", defaultValue = "0") long wait,
+                                                  HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        Duration waitFor = Duration.ofSeconds(Math.max(0, wait));
+        return changeFeed.poll(since, Math.max(0, Math.min(limit, MAX_LIMIT)),
+                waitFor.compareTo(maxWait) > 0 ? maxWait : waitFor);
+    }
+}
@@ -0,0 +1,36 @@
+package com.library.book.diagnostics;
+
+/**
+ * SQL statements made by the thread handling the current request.
+ */
+final class RequestCost {
+
+    private static final ThreadLocal<RequestCost> CURRENT = new ThreadLocal<>();
+
+    private int queries;
+
+    private RequestCost() {}
+
+    static RequestCost begin() {
+        RequestCost cost = new RequestCost();
+        CURRENT.set(cost);
+        return cost;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static RequestCost current() {
+        return CURRENT.get();
+    }
+
+    static void recordQuery() {
+        RequestCost cost = CURRENT.get();
+        if (cost != null) {
+            cost.queries++;
+        }
+    }
+
+    int getQueries() { return queries; }
+}
@@ -0,0 +1,65 @@
+package com.library.book.diagnostics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many queries each request made, per route, and warns
+ * about requests above {@code library.request-cost.query-warning-threshold} queries,
+ * which is how an N+1 pattern usually shows up.
+ */
+@Component
+public class RequestCostFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCostFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int queryWarningThreshold;
+
+    public RequestCostFilter(MeterRegistry meterRegistry,
+                             @Value("${library.request-cost.query-warning-threshold:20}") int queryWarningThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.queryWarningThreshold = queryWarningThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestCost cost = RequestCost.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestCost.end();
+            record(request, cost);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestCost cost) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+        DistributionSummary.builder("library.request.queries")
+                .description("SQL statements per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(cost.getQueries());
+        if (cost.getQueries() > queryWarningThreshold) {
+            logger.warn("{} {}: {} queries", request.getMethod(), uri, cost.getQueries());
+        } else {
+            logger.debug("{} {}: {} queries", request.getMethod(), uri, cost.getQueries());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.library.book.diagnostics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Samples Hibernate's slow-query log: statements slower than {@code hibernate.log_slow_query}
+ * milliseconds are all counted in {@code library.db.slow-queries}, but at most
+ * {@code library.slow-query.max-per-minute} of them are logged each minute. The rest are
+ * summed up in one line when the minute is over.
+ */
+@Component
+public class SlowQuerySampler extends TurboFilter implements SmartLifecycle {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(SlowQuerySampler.class);
+    private static final String SLOW_QUERY_LOGGER = "org.hibernate.SQL_SLOW";
+
+    private final int maxPerMinute;
+    private final Counter slowQueries;
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    public SlowQuerySampler(@Value("${library.slow-query.max-per-minute:10}") int maxPerMinute,
+                            MeterRegistry meterRegistry) {
+        this.maxPerMinute = maxPerMinute;
+        this.slowQueries = meterRegistry.counter("library.db.slow-queries");
+        setName("slow-query-sampler");
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger target, Level level, String format, Object[] params, Throwable t) {
+        // Level checks come without a message and are left alone.
+        if (format == null || !SLOW_QUERY_LOGGER.equals(target.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        slowQueries.increment();
+        if (logged.incrementAndGet() <= maxPerMinute) {
+            return FilterReply.NEUTRAL;
+        }
+        dropped.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    @Scheduled(fixedDelayString = "PT1M")
+    public void nextMinute() {
+        logged.set(0);
+        int skipped = dropped.getAndSet(0);
+        if (skipped > 0) {
+            logger.warn("{} more slow queries in the last minute were not logged", skipped);
+        }
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        loggerContext().addTurboFilter(this);
+    }
+
+    @Override
+    public void stop() {
+        loggerContext().getTurboFilterList().remove(this);
+        super.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return isStarted();
+    }
+
+    private static LoggerContext loggerContext() {
+        return (LoggerContext) LoggerFactory.getILoggerFactory();
+    }
+}
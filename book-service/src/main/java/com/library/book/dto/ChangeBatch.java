@@ -0,0 +1,27 @@
+package com.library.book.dto;
+
+import com.library.book.entity.CatalogChange;
+
+import java.util.List;
+
+/**
+ * Changes after the sequence number a consumer asked for, oldest first, together with
+ * the last sequence number committed when they were read. The first change is always
+ * {@code since + 1} unless the changes in between have been purged or a bulk import
+ * skipped them; consumers treat any other first number, or a {@code lastSeq} below
+ * {@code since}, as a gap to resync over.
+ */
+public class ChangeBatch {
+
+    private final List<CatalogChange> changes;
+    private final long lastSeq;
+
+    public ChangeBatch(List<CatalogChange> changes, long lastSeq) {
+        this.changes = changes;
+        this.lastSeq = lastSeq;
+    }
+
+    public List<CatalogChange> getChanges() { return changes; }
+
+    public long getLastSeq() { return lastSeq; }
+}
@@ -0,0 +1,53 @@
+package com.library.book.dto;
+
+import java.util.List;
+
+/**
+ * What a bulk import did. Rows are numbered from 1 in the order they were read, not
+ * counting a CSV header; only the first rejected rows are listed in {@code errors}.
+ */
+public class ImportSummary {
+
+    private final long rows;
+    private final long books;
+    private final long authors;
+    private final long rejected;
+    private final List<RowError> errors;
+    private final long millis;
+
+    public ImportSummary(long rows, long books, long authors, long rejected, List<RowError> errors, long millis) {
+        this.rows = rows;
+        this.books = books;
+        this.authors = authors;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.millis = millis;
+    }
+
+    public long getRows() { return rows; }
+
+    public long getBooks() { return books; }
+
+    public long getAuthors() { return authors; }
+
+    public long getRejected() { return rejected; }
+
+    public List<RowError> getErrors() { return errors; }
+
+    public long getMillis() { return millis; }
+
+    public static class RowError {
+
+        private final long row;
+        private final String error;
+
+        public RowError(long row, String error) {
+            this.row = row;
+            this.error = error;
+        }
+
+        public long getRow() { return row; }
+
+        public String getError() { return error; }
+    }
+}
@@ -2,8 +2,10 @@ package com.library.book.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "books")
@@ -14,7 +16,8 @@ import jakarta.validation.constraints.Size;
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Title is required")
@@ -27,6 +30,13 @@ public class Book {
 
     private Integer publicationYear;
 
+    // Copies the library owns; loan-service allows this many active loans of the book.
+    // Null only in a request body that leaves it out; stored books have at least one.
+    @Min(value = 1, message = "A book needs at least one copy")
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private Integer copies;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     @JsonIgnore
@@ -44,6 +54,7 @@ public class Book {
         this.title = title;
         this.isbn = isbn;
         this.publicationYear = publicationYear;
+        this.copies = 1;
     }
 
     public Long getId() { return id; }
@@ -58,6 +69,9 @@ public class Book {
     public Integer getPublicationYear() { return publicationYear; }
     public void setPublicationYear(Integer publicationYear) { this.publicationYear = publicationYear; }
 
+    public Integer getCopies() { return copies; }
+    public void setCopies(Integer copies) { this.copies = copies; }
+
     public Author getAuthor() { return author; }
     public void setAuthor(Author author) { 
         this.author = author;
@@ -67,6 +81,13 @@ public class Book {
         }
     }
     
+    @PrePersist
+    private void defaultCopies() {
+        if (copies == null) {
+            copies = 1;
+        }
+    }
+
     @PostLoad
     private void populateTransientFields() {
         if (author != null) {
@@ -0,0 +1,67 @@
+package com.library.book.entity;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One committed change to the catalog, in the order changes committed. Rows are
+ * written in the same transaction as the change itself (a transactional outbox) and
+ * numbered without gaps, so a consumer that sees a jump in {@code seq} knows it
+ * missed something.
+ */
+@Entity
+@Table(name = "catalog_changes")
+public class CatalogChange {
+
+    // CATALOG marks a change to the catalog as a whole, with IMPORTED for a bulk import.
+    public enum EntityType { BOOK, AUTHOR, CATALOG }
+
+    public enum Type { CREATED, UPDATED, DELETED, IMPORTED }
+
+    @Id
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    // The entity as JSON after the change; null for deletions.
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    public CatalogChange() {}
+
+    public CatalogChange(Long seq, EntityType entityType, Long entityId, Type type, Instant occurredAt, String payload) {
+        this.seq = seq;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.type = type;
+        this.occurredAt = occurredAt;
+        this.payload = payload;
+    }
+
+    public Long getSeq() { return seq; }
+
+    public EntityType getEntityType() { return entityType; }
+
+    public Long getEntityId() { return entityId; }
+
+    public Type getType() { return type; }
+
+    public Instant getOccurredAt() { return occurredAt; }
+
+    @JsonRawValue
+    public String getPayload() { return payload; }
+}
@@ -0,0 +1,36 @@
+package com.library.book.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Single-row counter holding the last {@link CatalogChange} sequence number. Writers
+ * lock the row to take the next number and keep the lock until they commit, so
+ * changes become visible strictly in sequence order.
+ */
+@Entity
+@Table(name = "catalog_change_head")
+public class CatalogChangeHead {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long lastSeq;
+
+    public CatalogChangeHead() {}
+
+    public CatalogChangeHead(long lastSeq) {
+        this.id = ID;
+        this.lastSeq = lastSeq;
+    }
+
+    public Integer getId() { return id; }
+
+    public long getLastSeq() { return lastSeq; }
+
+    public long next() {
+        return ++lastSeq;
+    }
+}
@@ -0,0 +1,18 @@
+package com.library.book.event;
+
+public class AuthorChangedEvent implements CatalogChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Long authorId;
+    private final Type type;
+
+    public AuthorChangedEvent(Long authorId, Type type) {
+        this.authorId = authorId;
+        this.type = type;
+    }
+
+    public Long getAuthorId() { return authorId; }
+
+    public Type getType() { return type; }
+}
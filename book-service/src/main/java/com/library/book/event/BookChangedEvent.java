@@ -0,0 +1,18 @@
+package com.library.book.event;
+
+public class BookChangedEvent implements CatalogChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Long bookId;
+    private final Type type;
+
+    public BookChangedEvent(Long bookId, Type type) {
+        this.bookId = bookId;
+        this.type = type;
+    }
+
+    public Long getBookId() { return bookId; }
+
+    public Type getType() { return type; }
+}
@@ -0,0 +1,7 @@
+package com.library.book.event;
+
+/**
+ * Any change to data that appears in catalog responses.
+ */
+public interface CatalogChangedEvent {
+}
@@ -0,0 +1,19 @@
+package com.library.book.event;
+
+/**
+ * A bulk import committed books and authors without an event per row.
+ */
+public class CatalogImportedEvent implements CatalogChangedEvent {
+
+    private final long books;
+    private final long authors;
+
+    public CatalogImportedEvent(long books, long authors) {
+        this.books = books;
+        this.authors = authors;
+    }
+
+    public long getBooks() { return books; }
+
+    public long getAuthors() { return authors; }
+}
@@ -1,8 +1,25 @@
 package com.library.book.repository;
 
 import com.library.book.entity.Author;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface AuthorRepository extends JpaRepository<Author, Long> {
+    List<Author> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    List<Author> findAllByOrderByNameAscIdAsc(Pageable pageable);
+
+    @Query("SELECT a FROM Author a WHERE a.name > ?1 OR (a.name = ?1 AND a.id > ?2) ORDER BY a.name, a.id")
+    List<Author> findPageOrderByName(String afterName, Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.id, a.name FROM Author a ORDER BY a.id")
+    Stream<Object[]> streamIdAndName();
 }
-    
\ No newline at end of file
@@ -1,20 +1,113 @@
 package com.library.book.repository;
 
 import com.library.book.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookRepository extends CrudRepository<Book, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
     @Query("SELECT b FROM Book b WHERE b.author.id = ?1")
     List<Book> findByAuthorId(Long authorId);
     
     @Query("SELECT DISTINCT b FROM Book b LEFT JOIN FETCH b.author")
     List<Book> findAllWithAuthor();
+
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author WHERE b.id > ?1 ORDER BY b.id")
+    List<Book> findPageWithAuthor(Long afterId, Pageable pageable);
+
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author ORDER BY b.title, b.id")
+    List<Book> findPageWithAuthorOrderByTitle(Pageable pageable);
+
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author "
+            + "WHERE b.title > ?1 OR (b.title = ?1 AND b.id > ?2) ORDER BY b.title, b.id")
+    List<Book> findPageWithAuthorOrderByTitle(String afterTitle, Long afterId, Pageable pageable);
+
+    /**
+     * Full-text matches on a book's title, ISBN and author name taken together, as
+     * {id, rank} rows, best rank first, so terms may be split between title and author.
+     * Books are found through the books index, or through the authors matching any of
+     * the query's terms. Only the first {@code maxMatches} matches by id are ranked, so a
+     * page costs at most that many rank computations however common the terms are. Pass
+     * {@code Infinity} and 0 as the cursor for the first page.
+     */
+    @Query(value = """
+            WITH q AS (
+                SELECT websearch_to_tsquery('simple', :query) AS query,
+                       (SELECT CAST(coalesce(string_agg(
+                                   '''' || replace(replace(lexeme, '\\', '\\\\'), '''', '''''') || '''', ' | '), '') AS tsquery)
+                        FROM unnest(to_tsvector('simple', :query))) AS any_term
+            ),
+            matches AS (
+                SELECT id FROM (
+                    SELECT b.id FROM books b, q WHERE b.search_vector @@ q.query
+                    UNION
+                    SELECT b.id FROM authors a JOIN books b ON b.author_id = a.id, q
+                    WHERE a.search_vector @@ q.any_term AND (b.search_vector || a.search_vector) @@ q.query
+                ) found
+                ORDER BY id
+                LIMIT :maxMatches
+            ),
+            ranked AS (
+                SELECT b.id,
+                       CAST(ts_rank(b.search_vector || coalesce(a.search_vector, CAST('' AS tsvector)), q.query) AS real) AS rank
+                FROM matches m
+                JOIN books b ON b.id = m.id
+                LEFT JOIN authors a ON a.id = b.author_id, q
+                WHERE (b.search_vector || coalesce(a.search_vector, CAST('' AS tsvector))) @@ q.query
+            )
+            SELECT id, rank FROM ranked
+            WHERE rank < CAST(:afterRank AS real) OR (rank = CAST(:afterRank AS real) AND id > :afterId)
+            ORDER BY rank DESC, id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> searchFullText(@Param("query") String query, @Param("maxMatches") int maxMatches,
+                                  @Param("afterRank") float afterRank, @Param("afterId") long afterId,
+                                  @Param("limit") int limit);
+
+    /**
+     * Books whose ISBN, without hyphens, starts with {@code digits}, in ISBN order.
+     */
+    @Query(value = """
+            SELECT b.id, replace(b.isbn, '-', '') AS digits FROM books b
+            WHERE replace(b.isbn, '-', '') LIKE :digits || '%'
+              AND (replace(b.isbn, '-', '') > :afterDigits OR (replace(b.isbn, '-', '') = :afterDigits AND b.id > :afterId))
+            ORDER BY replace(b.isbn, '-', ''), b.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> searchIsbnPrefix(@Param("digits") String digits, @Param("afterDigits") String afterDigits,
+                                    @Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * Portable fallback for databases without full-text search.
+     */
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author a "
+            + "WHERE (LOWER(b.title) LIKE ?1 ESCAPE '\\' OR LOWER(b.isbn) LIKE ?1 ESCAPE '\\' "
+            + "OR LOWER(a.name) LIKE ?1 ESCAPE '\\') AND b.id > ?2 "
+            + "ORDER BY b.id")
+    List<Book> searchLike(String pattern, Long afterId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author WHERE b.id > ?1 ORDER BY b.id")
+    Stream<Book> streamWithAuthor(Long afterId);
+
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author WHERE b.id IN ?1")
+    List<Book> findAllWithAuthorByIdIn(Collection<Long> ids);
     
     @EntityGraph("Book.withAuthor")
     Optional<Book> findById(Long id);
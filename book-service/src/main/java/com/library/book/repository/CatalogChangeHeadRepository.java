@@ -0,0 +1,15 @@
+package com.library.book.repository;
+
+import com.library.book.entity.CatalogChangeHead;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface CatalogChangeHeadRepository extends JpaRepository<CatalogChangeHead, Integer> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM CatalogChangeHead h WHERE h.id = ?1")
+    Optional<CatalogChangeHead> lockById(Integer id);
+}
@@ -0,0 +1,20 @@
+package com.library.book.repository;
+
+import com.library.book.entity.CatalogChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+    List<CatalogChange> findBySeqGreaterThanOrderBySeqAsc(Long since, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CatalogChange c WHERE c.occurredAt < ?1")
+    int deleteOccurredBefore(Instant cutoff);
+}
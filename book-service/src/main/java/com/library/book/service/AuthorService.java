@@ -0,0 +1,58 @@
+package com.library.book.service;
+
+import com.library.book.entity.Author;
+import com.library.book.entity.Book;
+import com.library.book.event.AuthorChangedEvent;
+import com.library.book.event.BookChangedEvent;
+import com.library.book.repository.AuthorRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Service
+@Transactional
+public class AuthorService {
+
+    private final AuthorRepository authorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AuthorService(AuthorRepository authorRepository, ApplicationEventPublisher eventPublisher) {
+        this.authorRepository = authorRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Author createAuthor(Author author) {
+        Author saved = authorRepository.save(author);
+        eventPublisher.publishEvent(new AuthorChangedEvent(saved.getId(), AuthorChangedEvent.Type.CREATED));
+        return saved;
+    }
+
+    public Optional<Author> updateAuthor(Long id, Author authorDetails) {
+        return authorRepository.findById(id)
+                .map(author -> {
+                    author.setName(authorDetails.getName());
+                    author.setNationality(authorDetails.getNationality());
+                    Author saved = authorRepository.save(author);
+                    eventPublisher.publishEvent(new AuthorChangedEvent(id, AuthorChangedEvent.Type.UPDATED));
+                    return saved;
+                });
+    }
+
+    /**
+     * Deletes the author together with their books, publishing a deletion for each book.
+     */
+    public boolean deleteAuthor(Long id) {
+        return authorRepository.findById(id)
+                .map(author -> {
+                    for (Book book : author.getBooks()) {
+                        eventPublisher.publishEvent(new BookChangedEvent(book.getId(), BookChangedEvent.Type.DELETED));
+                    }
+                    authorRepository.delete(author);
+                    eventPublisher.publishEvent(new AuthorChangedEvent(id, AuthorChangedEvent.Type.DELETED));
+                    return true;
+                })
+                .orElse(false);
+    }
+}
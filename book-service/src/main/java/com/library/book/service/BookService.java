@@ -1,24 +1,57 @@
 package com.library.book.service;
 
+import com.library.book.dto.CursorPage;
+import com.library.book.dto.KeysetCursor;
 import com.library.book.entity.Book;
+import com.library.book.event.BookChangedEvent;
 import com.library.book.repository.AuthorRepository;
 import com.library.book.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class BookService {
 
+    private static final int ISBN_MIN_DIGITS = 5;
+    private static final Pattern ISBN_QUERY = Pattern.compile("[0-9]+X?");
+
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final boolean fullTextSearch;
+    private final int maxMatches;
 
-    public BookService(BookRepository bookRepository, AuthorRepository authorRepository) {
+    public BookService(BookRepository bookRepository, AuthorRepository authorRepository,
+                       ApplicationEventPublisher eventPublisher, EntityManager entityManager,
+                       @Value("${library.search.full-text:true}") boolean fullTextSearch,
+                       @Value("${library.search.max-matches:1000}") int maxMatches) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.fullTextSearch = fullTextSearch;
+        this.maxMatches = maxMatches;
     }
 
     @Transactional(readOnly = true)
@@ -26,6 +59,120 @@ public class BookService {
         return bookRepository.findAllWithAuthor();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<Book> getBooksPage(int limit, String after, String sort) {
+        Pageable fetch = PageRequest.ofSize(limit + 1);
+        switch (sort) {
+            case "id": {
+                Long afterId = after != null ? KeysetCursor.decodeId(after) : 0L;
+                return CursorPage.of(bookRepository.findPageWithAuthor(afterId, fetch), limit,
+                        book -> String.valueOf(book.getId()));
+            }
+            case "title": {
+                List<Book> rows;
+                if (after == null) {
+                    rows = bookRepository.findPageWithAuthorOrderByTitle(fetch);
+                } else {
+                    KeysetCursor cursor = KeysetCursor.decode(after);
+                    rows = bookRepository.findPageWithAuthorOrderByTitle(cursor.getKey(), cursor.getId(), fetch);
+                }
+                return CursorPage.of(rows, limit, book -> new KeysetCursor(book.getTitle(), book.getId()).encode());
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+    }
+
+    /**
+     * Searches titles, ISBNs and author names. Queries that look like an ISBN (a
+     * hyphen or at least {@value #ISBN_MIN_DIGITS} digits) take an exact/prefix path
+     * on the hyphen-free ISBN; everything else is full-text search ranked by
+     * {@code ts_rank} among the first {@code library.search.max-matches} matches.
+     * Both paths are keyset paginated.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Book> searchBooks(String query, int limit, String after) {
+        String text = query.trim();
+        if (text.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        String isbnDigits = toIsbnDigits(text);
+        if (isbnDigits != null) {
+            KeysetCursor cursor = after != null ? KeysetCursor.decode(after) : new KeysetCursor("", 0L);
+            return toSearchPage(bookRepository.searchIsbnPrefix(isbnDigits, cursor.getKey(), cursor.getId(), limit + 1), limit);
+        }
+        if (!fullTextSearch) {
+            Long afterId = after != null ? KeysetCursor.decodeId(after) : 0L;
+            String pattern = "%" + text.toLowerCase(Locale.ROOT).replaceAll("([\\\\%_])", "\\\\$1") + "%";
+            return CursorPage.of(bookRepository.searchLike(pattern, afterId, PageRequest.ofSize(limit + 1)), limit,
+                    book -> String.valueOf(book.getId()));
+        }
+        float afterRank = Float.POSITIVE_INFINITY;
+        long afterId = 0L;
+        if (after != null) {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            try {
+                afterRank = Float.parseFloat(cursor.getKey());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+            afterId = cursor.getId();
+        }
+        return toSearchPage(bookRepository.searchFullText(text, maxMatches, afterRank, afterId, limit + 1), limit);
+    }
+
+    private static String toIsbnDigits(String text) {
+        String digits = text.replace("-", "").replace(" ", "").toUpperCase(Locale.ROOT);
+        if (!ISBN_QUERY.matcher(digits).matches()) {
+            return null;
+        }
+        return text.contains("-") || digits.length() >= ISBN_MIN_DIGITS ? digits : null;
+    }
+
+    /**
+     * Turns {id, sortKey} rows fetched with {@code limit + 1} into a page of books,
+     * keeping the row order.
+     */
+    private CursorPage<Book> toSearchPage(List<Object[]> rows, int limit) {
+        List<Object[]> pageRows = rows.size() > limit ? rows.subList(0, limit) : rows;
+        List<Long> ids = pageRows.stream().map(row -> ((Number) row[0]).longValue()).collect(Collectors.toList());
+        Map<Long, Book> booksById = bookRepository.findAllWithAuthorByIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> books = ids.stream().map(booksById::get).filter(Objects::nonNull).collect(Collectors.toList());
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            Object[] last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new KeysetCursor(String.valueOf(last[1]), ((Number) last[0]).longValue()).encode();
+        }
+        return new CursorPage<>(books, nextCursor);
+    }
+
+    /**
+     * Streams every book with an id greater than {@code afterId} in id order. The
+     * persistence context is cleared after each fetch so memory stays flat no matter
+     * how large the catalog is; books handed to the sink are detached shortly after.
+     */
+    @Transactional(readOnly = true)
+    public void exportBooks(Long afterId, Consumer<Book> sink) {
+        try (Stream<Book> books = bookRepository.streamWithAuthor(afterId)) {
+            int count = 0;
+            for (Iterator<Book> it = books.iterator(); it.hasNext(); ) {
+                sink.accept(it.next());
+                if (++count % BookRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Book> getBooksByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return bookRepository.findAllWithAuthorByIdIn(new LinkedHashSet<>(ids));
+    }
+
     @Transactional(readOnly = true)
     public Optional<Book> getBookById(Long id) {
         Optional<Book> result = bookRepository.findById(id);
@@ -43,11 +190,17 @@ public class BookService {
             return authorRepository.findById(book.getAuthorId())
                     .map(author -> {
                         book.setAuthor(author);
-                        return bookRepository.save(book);
+                        return saveNew(book);
                     })
                     .orElse(null);
         }
-        return bookRepository.save(book);
+        return saveNew(book);
+    }
+
+    private Book saveNew(Book book) {
+        Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(new BookChangedEvent(saved.getId(), BookChangedEvent.Type.CREATED));
+        return saved;
     }
 
     public Optional<Book> updateBook(Long id, Book bookDetails) {
@@ -56,11 +209,17 @@ public class BookService {
                     book.setTitle(bookDetails.getTitle());
                     book.setIsbn(bookDetails.getIsbn());
                     book.setPublicationYear(bookDetails.getPublicationYear());
+                    // Clients that do not know about copies leave them as they are
+                    if (bookDetails.getCopies() != null && bookDetails.getCopies() >= 1) {
+                        book.setCopies(bookDetails.getCopies());
+                    }
                     if (bookDetails.getAuthorId() != null) {
                         authorRepository.findById(bookDetails.getAuthorId())
                                 .ifPresent(book::setAuthor);
                     }
-                    return bookRepository.save(book);
+                    Book saved = bookRepository.save(book);
+                    eventPublisher.publishEvent(new BookChangedEvent(id, BookChangedEvent.Type.UPDATED));
+                    return saved;
                 });
     }
 
@@ -68,6 +227,7 @@ public class BookService {
         return bookRepository.findById(id)
                 .map(book -> {
                     bookRepository.delete(book);
+                    eventPublisher.publishEvent(new BookChangedEvent(id, BookChangedEvent.Type.DELETED));
                     return true;
                 })
                 .orElse(false);
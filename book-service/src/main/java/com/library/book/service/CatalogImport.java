@@ -0,0 +1,357 @@
+package com.library.book.service;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.library.book.dto.ImportSummary;
+import com.library.book.entity.Book;
+import com.library.book.event.CatalogImportedEvent;
+import com.library.book.repository.AuthorRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Imports books from a CSV or NDJSON stream, read one row at a time. Authors are
+ * resolved by name against an in-memory map of every author, and the missing ones are
+ * created once. Books are upserted by ISBN with {@code INSERT ... ON CONFLICT} in JDBC
+ * batches of {@value #BATCH_SIZE}, so a row whose ISBN already exists replaces that book's
+ * title, year and copies (and its author, if the row names one). Rows without an ISBN are
+ * always added.
+ * <p>
+ * Invalid rows are skipped and reported; the rest are imported in one transaction, which
+ * holds a connection until the whole upload has been read. Only a stream that cannot be
+ * read any further rejects the whole import. Rows are not written to
+ * the change feed one by one: the import takes a single sequence number without a change,
+ * so followers see a gap and reload their copy of the catalog.
+ */
+@Service
+public class CatalogImport {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImport.class);
+    private static final int BATCH_SIZE = 1_000;
+    private static final int PROGRESS_INTERVAL = 100_000;
+    private static final int MAX_REPORTED_ERRORS = 1_000;
+    private static final int MAX_LENGTH = 255;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    // allocationSize of books_seq and authors_seq; ids are taken the way Hibernate's pooled-lo optimizer does
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_AUTHOR = "INSERT INTO authors (id, name) VALUES (?, ?)";
+    private static final String UPSERT_BOOK = """
+            INSERT INTO books (id, title, isbn, publication_year, copies, author_id) VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (isbn) DO UPDATE SET title = EXCLUDED.title, publication_year = EXCLUDED.publication_year,
+                copies = EXCLUDED.copies, author_id = coalesce(EXCLUDED.author_id, books.author_id)""";
+
+    private final AuthorRepository authorRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public CatalogImport(AuthorRepository authorRepository, JdbcTemplate jdbcTemplate,
+                         ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.authorRepository = authorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.jsonReader = objectMapper.readerFor(Book.class);
+        CsvMapper csvMapper = CsvMapper.builder()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                // An empty column is left null; a book without copies gets one
+                .defaultSetterInfo(JsonSetter.Value.forValueNulls(Nulls.SKIP))
+                .build();
+        this.csvReader = csvMapper.readerFor(Book.class).with(CsvSchema.emptySchema().withHeader());
+        this.importedRows = meterRegistry.counter("library.import.rows", "outcome", "imported");
+        this.rejectedRows = meterRegistry.counter("library.import.rows", "outcome", "rejected");
+    }
+
+    /**
+     * @param books CSV with a header row, or one JSON book per line; columns and fields are
+     *              named like the book's JSON, with {@code authorName} naming the author
+     * @throws IllegalArgumentException if the stream cannot be read to the end, after which
+     *                                  nothing is imported
+     */
+    @Transactional
+    public ImportSummary importBooks(InputStream books, Format format) throws IOException {
+        Run run = new Run(existingAuthors());
+        try (Rows rows = format == Format.CSV ? csvRows(books) : ndjsonRows(books)) {
+            while (true) {
+                Book book;
+                try {
+                    book = rows.next();
+                } catch (IllegalArgumentException e) {
+                    run.reject(++run.rows, e.getMessage());
+                    continue;
+                }
+                if (book == null) {
+                    break;
+                }
+                run.add(++run.rows, book);
+                if (run.pending.size() == BATCH_SIZE) {
+                    run.flush();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable input after row " + run.rows + ": " + e.getOriginalMessage(), e);
+        }
+        run.flush();
+        if (run.books > 0 || run.authors > 0) {
+            eventPublisher.publishEvent(new CatalogImportedEvent(run.books, run.authors));
+        }
+        long millis = run.elapsedMillis();
+        logger.info("Imported {} books and {} new authors from {} rows in {} ms; {} rows rejected",
+                run.books, run.authors, run.rows, millis, run.rejected);
+        return new ImportSummary(run.rows, run.books, run.authors, run.rejected, run.errors, millis);
+    }
+
+    /**
+     * Author ids by name. Of several authors with the same name, the oldest is used.
+     */
+    private Map<String, Long> existingAuthors() {
+        Map<String, Long> authors = new HashMap<>();
+        try (Stream<Object[]> rows = authorRepository.streamIdAndName()) {
+            rows.forEach(row -> authors.putIfAbsent((String) row[1], (Long) row[0]));
+        }
+        return authors;
+    }
+
+    private Rows ndjsonRows(InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        return new Rows() {
+            @Override
+            public Book next() throws IOException {
+                String line;
+                do {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                } while (line.isBlank());
+                Book book;
+                try {
+                    book = jsonReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    // Each line is parsed on its own, so the next one can still be read
+                    throw new IllegalArgumentException(e.getOriginalMessage());
+                }
+                if (book == null) {
+                    throw new IllegalArgumentException("not a book: " + line);
+                }
+                return book;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    private Rows csvRows(InputStream in) throws IOException {
+        MappingIterator<Book> iterator = csvReader.readValues(in);
+        return new Rows() {
+            @Override
+            public Book next() throws IOException {
+                if (!iterator.hasNextValue()) {
+                    return null;
+                }
+                try {
+                    return iterator.nextValue();
+                } catch (JsonMappingException e) {
+                    // The iterator skips the rest of the row before reading the next one
+                    throw new IllegalArgumentException(e.getOriginalMessage());
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                iterator.close();
+            }
+        };
+    }
+
+    private static String problem(Book book) {
+        if (book.getTitle() == null || book.getTitle().isBlank()) {
+            return "title is required";
+        }
+        if (book.getTitle().length() > MAX_LENGTH) {
+            return "title must be at most " + MAX_LENGTH + " characters";
+        }
+        if (book.getIsbn() != null && book.getIsbn().length() > MAX_LENGTH) {
+            return "isbn must be at most " + MAX_LENGTH + " characters";
+        }
+        if (book.getAuthorName() != null && book.getAuthorName().strip().length() > MAX_LENGTH) {
+            return "authorName must be at most " + MAX_LENGTH + " characters";
+        }
+        if (book.getCopies() != null && book.getCopies() < 1) {
+            return "a book needs at least one copy";
+        }
+        return null;
+    }
+
+    /**
+     * Rows of the incoming stream.
+     */
+    private interface Rows extends Closeable {
+        /**
+         * @return the next row, or {@code null} after the last one
+         * @throws IllegalArgumentException if this row cannot be read but the next one can
+         * @throws IOException if the stream cannot be read any further
+         */
+        Book next() throws IOException;
+    }
+
+    /**
+     * State of one import: the author map, the rows waiting for the next batch and the counts.
+     */
+    private final class Run {
+
+        private final long started = System.nanoTime();
+        private final Map<String, Long> authorIds;
+        private final IdBlocks newAuthorIds = new IdBlocks(jdbcTemplate, "authors_seq", 1);
+        private final IdBlocks newBookIds = new IdBlocks(jdbcTemplate, "books_seq", BATCH_SIZE / ID_BLOCK_SIZE);
+        private final List<Object[]> newAuthors = new ArrayList<>();
+        // Keyed by ISBN: a batch may not upsert the same book twice, so the last row wins
+        private final Map<Object, Book> pending = new LinkedHashMap<>();
+        private final List<ImportSummary.RowError> errors = new ArrayList<>();
+        private long rows;
+        private long books;
+        private long authors;
+        private long rejected;
+        private long reportedRows;
+
+        Run(Map<String, Long> authorIds) {
+            this.authorIds = authorIds;
+        }
+
+        void add(long row, Book book) {
+            String problem = problem(book);
+            if (problem != null) {
+                reject(row, problem);
+                return;
+            }
+            String authorName = book.getAuthorName() == null ? null : book.getAuthorName().strip();
+            Long authorId = null;
+            if (authorName != null && !authorName.isEmpty()) {
+                authorId = authorIds.get(authorName);
+                if (authorId == null) {
+                    authorId = newAuthorIds.next();
+                    authorIds.put(authorName, authorId);
+                    newAuthors.add(new Object[]{authorId, authorName});
+                    authors++;
+                }
+            }
+            book.setId(newBookIds.next());
+            book.setAuthorId(authorId);
+            if (book.getCopies() == null) {
+                book.setCopies(1);
+            }
+            pending.put(book.getIsbn() != null ? book.getIsbn() : row, book);
+            importedRows.increment();
+        }
+
+        void reject(long row, String error) {
+            rejected++;
+            rejectedRows.increment();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportSummary.RowError(row, error));
+            }
+        }
+
+        void flush() {
+            // Authors first, for the books' foreign keys
+            if (!newAuthors.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_AUTHOR, newAuthors);
+                newAuthors.clear();
+            }
+            if (!pending.isEmpty()) {
+                books += pending.size();
+                jdbcTemplate.batchUpdate(UPSERT_BOOK, pending.values(), pending.size(), (statement, book) -> {
+                    statement.setLong(1, book.getId());
+                    statement.setString(2, book.getTitle());
+                    statement.setString(3, book.getIsbn());
+                    statement.setObject(4, book.getPublicationYear(), Types.INTEGER);
+                    statement.setInt(5, book.getCopies());
+                    statement.setObject(6, book.getAuthorId(), Types.BIGINT);
+                });
+                pending.clear();
+            }
+            if (rows - reportedRows >= PROGRESS_INTERVAL) {
+                reportedRows = rows;
+                logger.info("Import: {} rows read, {} rejected, {} rows/s", rows, rejected,
+                        rows * 1000 / Math.max(1, elapsedMillis()));
+            }
+        }
+
+        long elapsedMillis() {
+            return (System.nanoTime() - started) / 1_000_000;
+        }
+    }
+
+    /**
+     * Hands out ids from a pooled sequence: each value the sequence returns starts a block of
+     * {@value #ID_BLOCK_SIZE} ids. Several blocks can be taken in one round trip.
+     */
+    private static final class IdBlocks {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final String sequence;
+        private final int blocksPerFetch;
+        private final ArrayDeque<Long> blocks = new ArrayDeque<>();
+        private long next;
+        private long end;
+
+        IdBlocks(JdbcTemplate jdbcTemplate, String sequence, int blocksPerFetch) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.sequence = sequence;
+            this.blocksPerFetch = blocksPerFetch;
+        }
+
+        long next() {
+            if (next == end) {
+                if (blocks.isEmpty()) {
+                    blocks.addAll(jdbcTemplate.queryForList("SELECT nextval('" + sequence + "') FROM generate_series(1, ?)",
+                            Long.class, blocksPerFetch));
+                }
+                next = blocks.poll();
+                end = next + ID_BLOCK_SIZE;
+            }
+            return next++;
+        }
+    }
+}
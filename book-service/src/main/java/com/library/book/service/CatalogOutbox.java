@@ -0,0 +1,92 @@
+package com.library.book.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.book.entity.CatalogChange;
+import com.library.book.entity.CatalogChangeHead;
+import com.library.book.event.AuthorChangedEvent;
+import com.library.book.event.BookChangedEvent;
+import com.library.book.event.CatalogImportedEvent;
+import com.library.book.repository.AuthorRepository;
+import com.library.book.repository.BookRepository;
+import com.library.book.repository.CatalogChangeHeadRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Appends every catalog change to {@code catalog_changes} just before the changing
+ * transaction commits, so a change and its outbox row commit or roll back together.
+ * Taking the next sequence number locks the head row until the commit; catalog writes
+ * are serialized for that moment, which is what keeps the feed in order and gapless.
+ * The head row is created by {@code db/<platform>/catalog-outbox.sql}.
+ */
+@Component
+public class CatalogOutbox {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CatalogChangeHeadRepository headRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public CatalogOutbox(BookRepository bookRepository, AuthorRepository authorRepository,
+                         CatalogChangeHeadRepository headRepository,
+                         EntityManager entityManager, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.headRepository = headRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookChanged(BookChangedEvent event) {
+        Optional<?> book = event.getType() == BookChangedEvent.Type.DELETED
+                ? Optional.empty() : bookRepository.findById(event.getBookId());
+        append(CatalogChange.EntityType.BOOK, event.getBookId(), event.getType().name(), book);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        Optional<?> author = event.getType() == AuthorChangedEvent.Type.DELETED
+                ? Optional.empty() : authorRepository.findById(event.getAuthorId());
+        append(CatalogChange.EntityType.AUTHOR, event.getAuthorId(), event.getType().name(), author);
+    }
+
+    /**
+     * Writes one marker change for the whole import instead of a change per row, with the
+     * imported counts as its payload. Followers reload or refresh what they hold.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        append(CatalogChange.EntityType.CATALOG, 0L, CatalogChange.Type.IMPORTED.name(),
+                Optional.of(Map.of("books", event.getBooks(), "authors", event.getAuthors())));
+    }
+
+    private void append(CatalogChange.EntityType entityType, Long entityId, String type, Optional<?> entity) {
+        CatalogChangeHead head = lockHead();
+        String payload = entity.map(this::toJson).orElse(null);
+        entityManager.persist(new CatalogChange(head.next(), entityType, entityId, CatalogChange.Type.valueOf(type),
+                Instant.now(), payload));
+    }
+
+    private CatalogChangeHead lockHead() {
+        return headRepository.lockById(CatalogChangeHead.ID).orElseThrow(() -> new IllegalStateException(
+                "catalog_change_head has no row; db/<platform>/catalog-outbox.sql creates it"));
+    }
+
+    private String toJson(Object entity) {
+        try {
+            return objectMapper.writeValueAsString(entity);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.library.book.service;
+
+import com.library.book.event.CatalogChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the catalog served by this instance, used as a strong ETag for catalog
+ * reads. It is bumped both before and after a change commits. Anything computed while
+ * the commit is in flight is then tagged with a version that is already superseded.
+ * The boot-time prefix stops tags from a previous run matching after a restart.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String instancePrefix = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public String eTag(long version) {
+        return "\"" + instancePrefix + "-" + version + "\"";
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void beforeCommit(CatalogChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void afterCommit(CatalogChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,132 @@
+package com.library.book.service;
+
+import com.library.book.dto.ChangeBatch;
+import com.library.book.entity.CatalogChange;
+import com.library.book.entity.CatalogChangeHead;
+import com.library.book.event.CatalogChangedEvent;
+import com.library.book.repository.CatalogChangeHeadRepository;
+import com.library.book.repository.CatalogChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves the outbox written by {@link CatalogOutbox} as a long-poll change feed.
+ * A poll with nothing new is parked without holding a thread. It is answered as soon as
+ * a change commits on this instance, on the next periodic check for changes committed
+ * by other instances, or with an empty batch when its wait runs out. Rows older than
+ * {@code library.change-feed.retention} are purged; consumers that fall further behind
+ * see a gap and resync.
+ */
+@Service
+public class ChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private final CatalogChangeRepository changeRepository;
+    private final CatalogChangeHeadRepository headRepository;
+    private final Duration retention;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private volatile long lastKnownSeq;
+
+    public ChangeFeed(CatalogChangeRepository changeRepository, CatalogChangeHeadRepository headRepository,
+                      @Value("${library.change-feed.retention:7d}") Duration retention) {
+        this.changeRepository = changeRepository;
+        this.headRepository = headRepository;
+        this.retention = retention;
+    }
+
+    public ChangeBatch read(long since, int limit) {
+        // The head is read first: every change up to it has committed, so the changes read
+        // next start right after since unless they were purged.
+        long lastSeq = headRepository.findById(CatalogChangeHead.ID).map(CatalogChangeHead::getLastSeq).orElse(0L);
+        List<CatalogChange> changes = limit > 0 && lastSeq > since
+                ? changeRepository.findBySeqGreaterThanOrderBySeqAsc(since, PageRequest.ofSize(limit))
+                : List.of();
+        return new ChangeBatch(changes, lastSeq);
+    }
+
+    /**
+     * Like {@link #read}, but if nothing has committed after {@code since} yet, waits up to
+     * {@code wait} for the next change.
+     */
+    public DeferredResult<ChangeBatch> poll(long since, int limit, Duration wait) {
+        ChangeBatch batch = read(since, limit);
+        DeferredResult<ChangeBatch> result = new DeferredResult<>(wait.toMillis());
+        if (batch.getLastSeq() != since || wait.isZero()) {
+            result.setResult(batch);
+            return result;
+        }
+        Waiter waiter = new Waiter(since, limit, result);
+        result.onTimeout(() -> result.setResult(batch));
+        result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+        // A change may have committed between the read and registering.
+        wake(lastKnownSeq);
+        return result;
+    }
+
+    @Async
+    @TransactionalEventListener
+    public void onCommitted(CatalogChangedEvent event) {
+        wake(currentSeq());
+    }
+
+    @Scheduled(fixedDelayString = "${library.change-feed.check-interval:PT1S}")
+    public void checkForChanges() {
+        if (!waiters.isEmpty()) {
+            wake(currentSeq());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.change-feed.purge-interval:PT1H}")
+    public void purge() {
+        int purged = changeRepository.deleteOccurredBefore(Instant.now().minus(retention));
+        if (purged > 0) {
+            logger.info("Purged {} catalog changes older than {}", purged, retention);
+        }
+    }
+
+    private long currentSeq() {
+        return headRepository.findById(CatalogChangeHead.ID).map(CatalogChangeHead::getLastSeq).orElse(0L);
+    }
+
+    private void wake(long seq) {
+        if (seq > lastKnownSeq) {
+            lastKnownSeq = seq;
+        }
+        for (Waiter waiter : waiters) {
+            if (waiter.since < seq && waiters.remove(waiter)) {
+                try {
+                    waiter.result.setResult(read(waiter.since, waiter.limit));
+                } catch (RuntimeException e) {
+                    waiter.result.setErrorResult(e);
+                }
+            }
+        }
+    }
+
+    private static final class Waiter {
+        final long since;
+        final int limit;
+        final DeferredResult<ChangeBatch> result;
+
+        Waiter(long since, int limit, DeferredResult<ChangeBatch> result) {
+            this.since = since;
+            this.limit = limit;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Authors and books used to get ids from identity columns. Move their sequences past the
+-- highest existing ids so the blocks they hand out never collide with those rows.
+SELECT setval('authors_seq', (SELECT MAX(id) FROM authors))
+WHERE (SELECT MAX(id) FROM authors) >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM authors_seq);
+
+SELECT setval('books_seq', (SELECT MAX(id) FROM books))
+WHERE (SELECT MAX(id) FROM books) >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM books_seq);
@@ -0,0 +1,11 @@
+-- The outbox head row that catalog writers lock to number their changes. Created here, once,
+-- rather than by the first writer, so two first writes cannot both try to insert it.
+INSERT INTO catalog_change_head (id, last_seq)
+SELECT 1, COALESCE(MAX(seq), 0) FROM catalog_changes
+ON CONFLICT (id) DO NOTHING;
+
+-- Hibernate creates CHECK constraints listing the enum values of catalog_changes when it creates the
+-- table, and ddl-auto: update never widens them. Drop them so values added later, such as the
+-- CATALOG/IMPORTED marker of bulk imports, can be written to existing databases.
+ALTER TABLE catalog_changes DROP CONSTRAINT IF EXISTS catalog_changes_entity_type_check;
+ALTER TABLE catalog_changes DROP CONSTRAINT IF EXISTS catalog_changes_type_check;
@@ -0,0 +1,36 @@
+-- Runs after Hibernate has created or updated the tables (spring.jpa.defer-datasource-initialization).
+-- Every statement must be idempotent because the script runs on each startup.
+-- Indexes are built CONCURRENTLY so a build on a large table does not block writes. That needs
+-- autocommit, which is how Spring runs init scripts. A build that is interrupted leaves an
+-- INVALID index that IF NOT EXISTS would then skip forever, so the block below first drops the
+-- invalid indexes of this script that no other session is still building.
+-- loan-service's loan-indexes.sql explains why these are init scripts rather than migrations.
+
+DO '
+DECLARE
+    invalid regclass;
+BEGIN
+    FOR invalid IN
+        SELECT i.indexrelid::regclass FROM pg_index i
+        WHERE i.indrelid IN (''books''::regclass, ''authors''::regclass) AND NOT i.indisvalid
+          AND i.indexrelid::regclass::text IN (''idx_books_search_vector'', ''idx_authors_search_vector'', ''idx_books_isbn_digits'', ''idx_books_author_id'')
+          AND NOT EXISTS (SELECT 1 FROM pg_stat_progress_create_index p WHERE p.index_relid = i.indexrelid)
+    LOOP
+        EXECUTE format(''DROP INDEX %s'', invalid);
+    END LOOP;
+END';
+
+-- Full-text search over title and ISBN, and over author names.
+ALTER TABLE books ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(title, '') || ' ' || coalesce(isbn, ''))) STORED;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_search_vector ON books USING GIN (search_vector);
+
+ALTER TABLE authors ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(name, ''))) STORED;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_authors_search_vector ON authors USING GIN (search_vector);
+
+-- ISBN exact and prefix lookups ignore hyphens.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_isbn_digits ON books ((replace(isbn, '-', '')) text_pattern_ops);
+
+-- Joining matched authors back to their books.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_author_id ON books (author_id);
@@ -0,0 +1,64 @@
+package com.library.book.controller;
+
+import com.library.book.entity.Book;
+import com.library.book.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Edits through PUT /api/books/{id}, as the frontend's book form sends them.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookUpdateTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void keepsTheCopiesWhenTheBodyLeavesThemOut() throws Exception {
+        long id = book("978-0-00-000101-1", 4);
+
+        mockMvc.perform(put("/api/books/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Renamed\", \"isbn\": \"978-0-00-000101-1\", \"publicationYear\": 2001}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Renamed"))
+                .andExpect(jsonPath("$.copies").value(4));
+
+        assertThat(bookRepository.findById(id).orElseThrow().getCopies()).isEqualTo(4);
+    }
+
+    @Test
+    void setsTheCopiesWhenTheBodyHasThem() throws Exception {
+        long id = book("978-0-00-000102-8", 4);
+
+        mockMvc.perform(put("/api/books/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Book\", \"isbn\": \"978-0-00-000102-8\", \"copies\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.copies").value(2));
+
+        assertThat(bookRepository.findById(id).orElseThrow().getCopies()).isEqualTo(2);
+    }
+
+    private long book(String isbn, int copies) {
+        Book book = new Book("Book", isbn, 2000);
+        book.setCopies(copies);
+        return bookRepository.save(book).getId();
+    }
+}
@@ -0,0 +1,100 @@
+package com.library.book.service;
+
+import com.library.book.dto.CursorPage;
+import com.library.book.entity.Author;
+import com.library.book.entity.Book;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Full-text search, which needs PostgreSQL. Runs against the database given as
+ * {@code -Dtest.postgres.url=jdbc:postgresql://...} (with {@code test.postgres.username}
+ * and {@code test.postgres.password}, default postgres); every test is rolled back.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${test.postgres.url}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.datasource.username=${test.postgres.username:postgres}",
+        "spring.datasource.password=${test.postgres.password:postgres}",
+        "spring.sql.init.platform=postgresql",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "library.search.full-text=true"
+})
+@ActiveProfiles("test")
+@Transactional
+@EnabledIfSystemProperty(named = "test.postgres.url", matches = ".+")
+class BookFullTextSearchTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void catalog() {
+        Author brackenbury = author("Ottoline Brackenbury");
+        Author quillfeather = author("Anselm Quillfeather");
+        book("Lanterns of Vellmoor", brackenbury);
+        book("The Vellmoor Tides", brackenbury);
+        book("Lanterns at Dusk", quillfeather);
+        entityManager.flush();
+    }
+
+    @Test
+    void matchesTermsSplitBetweenTitleAndAuthor() {
+        assertThat(titles(bookService.searchBooks("lanterns brackenbury", 20, null)))
+                .containsExactly("Lanterns of Vellmoor");
+        assertThat(titles(bookService.searchBooks("vellmoor ottoline brackenbury", 20, null)))
+                .containsExactlyInAnyOrder("Lanterns of Vellmoor", "The Vellmoor Tides");
+    }
+
+    @Test
+    void matchesTitleOrAuthorAlone() {
+        assertThat(titles(bookService.searchBooks("lanterns", 20, null)))
+                .containsExactlyInAnyOrder("Lanterns of Vellmoor", "Lanterns at Dusk");
+        assertThat(titles(bookService.searchBooks("quillfeather", 20, null)))
+                .containsExactly("Lanterns at Dusk");
+    }
+
+    @Test
+    void excludedTermsApplyToTheAuthorToo() {
+        assertThat(titles(bookService.searchBooks("lanterns -brackenbury", 20, null)))
+                .containsExactly("Lanterns at Dusk");
+    }
+
+    @Test
+    void pagesByRank() {
+        CursorPage<Book> first = bookService.searchBooks("vellmoor", 1, null);
+        CursorPage<Book> second = bookService.searchBooks("vellmoor", 1, first.getNextCursor());
+        assertThat(titles(first)).hasSize(1);
+        assertThat(titles(second)).hasSize(1).doesNotContainAnyElementsOf(titles(first));
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    private Author author(String name) {
+        Author author = new Author(name, null);
+        entityManager.persist(author);
+        return author;
+    }
+
+    private void book(String title, Author author) {
+        Book book = new Book(title, null, 2000);
+        book.setAuthor(author);
+        entityManager.persist(book);
+    }
+
+    private static List<String> titles(CursorPage<Book> page) {
+        return page.getItems().stream().map(Book::getTitle).toList();
+    }
+}
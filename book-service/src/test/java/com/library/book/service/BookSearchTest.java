@@ -0,0 +1,107 @@
+package com.library.book.service;
+
+import com.library.book.dto.CursorPage;
+import com.library.book.entity.Author;
+import com.library.book.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search on H2, which has no full-text search and takes the LIKE fallback.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BookSearchTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void catalog() {
+        Author hugo = author("Victor Hugo");
+        Author zola = author("Émile Zola");
+        book("Les Misérables", "978-0-14-044430-8", hugo);
+        book("Notre-Dame de Paris", "978-0-14-044353-0", hugo);
+        book("Paris stories", "978-0-00-000001-1", zola);
+        book("Germinal", "978-0-14-044742-2", zola);
+        book("100% Paris", "978-0-00-000002-8", null);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void matchesTitlesAndAuthorNames() {
+        assertThat(titles(bookService.searchBooks("paris", 20, null)))
+                .containsExactly("Notre-Dame de Paris", "Paris stories", "100% Paris");
+        assertThat(titles(bookService.searchBooks("HUGO", 20, null)))
+                .containsExactly("Les Misérables", "Notre-Dame de Paris");
+    }
+
+    @Test
+    void treatsLikeWildcardsLiterally() {
+        assertThat(titles(bookService.searchBooks("100%", 20, null))).containsExactly("100% Paris");
+        assertThat(titles(bookService.searchBooks("_", 20, null))).isEmpty();
+    }
+
+    @Test
+    void pagesWithTheCursor() {
+        CursorPage<Book> first = bookService.searchBooks("paris", 2, null);
+        assertThat(titles(first)).containsExactly("Notre-Dame de Paris", "Paris stories");
+        CursorPage<Book> second = bookService.searchBooks("paris", 2, first.getNextCursor());
+        assertThat(titles(second)).containsExactly("100% Paris");
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void findsIsbnsWithOrWithoutHyphens() {
+        assertThat(titles(bookService.searchBooks("9780140444308", 20, null))).containsExactly("Les Misérables");
+        assertThat(titles(bookService.searchBooks("978-0-14-0447", 20, null))).containsExactly("Germinal");
+    }
+
+    @Test
+    void readsAPageAndItsAuthorsInOneQuery() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CursorPage<Book> page = bookService.searchBooks("paris", 20, null);
+
+        assertThat(page.getItems()).extracting(Book::getAuthorName)
+                .containsExactly("Victor Hugo", "Émile Zola", null);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Author author(String name) {
+        Author author = new Author(name, null);
+        entityManager.persist(author);
+        return author;
+    }
+
+    private void book(String title, String isbn, Author author) {
+        Book book = new Book(title, isbn, 1900);
+        book.setAuthor(author);
+        entityManager.persist(book);
+    }
+
+    private static List<String> titles(CursorPage<Book> page) {
+        return page.getItems().stream().map(Book::getTitle).toList();
+    }
+}
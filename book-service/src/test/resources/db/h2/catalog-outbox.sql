@@ -0,0 +1,4 @@
+-- Same as db/postgresql/catalog-outbox.sql; the in-memory database starts empty.
+INSERT INTO catalog_change_head (id, last_seq)
+SELECT 1, COALESCE(MAX(seq), 0) FROM catalog_changes
+WHERE NOT EXISTS (SELECT 1 FROM catalog_change_head);
@@ -0,0 +1,211 @@
+package com.library.loadtest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a synthetic catalog and loan history straight through JDBC. The same seed
+ * always produces the same authors, books and loans; loan dates are relative to today
+ * so a share of the loans is active and some of those are overdue.
+ * <p>
+ * Borrowing is skewed towards low book ids, so popularity rankings have a clear head.
+ */
+final class CatalogSeeder {
+
+    static final String[] TITLE_WORDS = {
+            "river", "winter", "garden", "shadow", "city", "silent", "empire", "night", "ocean", "letters",
+            "mountain", "stranger", "house", "memory", "fire", "glass", "harbour", "kingdom", "island", "voyage",
+            "paris", "summer", "crown", "forest", "mirror", "secret", "storm", "orchard", "desert", "lantern"};
+
+    private static final String[] FIRST_NAMES = {
+            "Victor", "Émile", "Marguerite", "Albert", "Simone", "Honoré", "George", "Marcel", "Colette", "Gustave",
+            "Jane", "Leo", "Fyodor", "Virginia", "Gabriel", "Toni", "Haruki", "Chinua", "Isabel", "Jorge"};
+    private static final String[] LAST_NAMES = {
+            "Hugo", "Zola", "Duras", "Camus", "Beauvoir", "Balzac", "Sand", "Proust", "Flaubert", "Austen",
+            "Tolstoy", "Dostoevsky", "Woolf", "Márquez", "Morrison", "Murakami", "Achebe", "Allende", "Borges", "Eliot",
+            "Dumas", "Verne", "Stendhal", "Mann", "Kafka"};
+    private static final String[] NATIONALITIES = {"French", "English", "Russian", "Colombian", "American", "Japanese"};
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int LOAN_DAYS = 14;
+    private static final int HISTORY_DAYS = 730;
+    // Free copies per book on top of its seeded active loans, so create-loan traffic does not run out.
+    private static final int SPARE_COPIES = 1_000;
+
+    private final LoadTestOptions options;
+
+    CatalogSeeder(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    static String authorName(int index) {
+        return FIRST_NAMES[index % FIRST_NAMES.length] + " " + LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length];
+    }
+
+    static String borrowerName(int index) {
+        return "Borrower " + index;
+    }
+
+    /**
+     * @return the ids of the seeded books, in insertion order
+     */
+    long[] seed(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (count(connection, "books") > 0 || count(connection, "loans") > 0) {
+                throw new IllegalStateException("The database already contains books or loans; use an empty database");
+            }
+            connection.setAutoCommit(false);
+            SplittableRandom random = new SplittableRandom(options.seed);
+            long started = System.nanoTime();
+            long[] authorIds = seedAuthors(connection, random);
+            long[] bookIds = seedBooks(connection, random, authorIds);
+            seedLoans(connection, random, bookIds);
+            seedCopies(connection);
+            seedBookSummaries(connection);
+            seedCatalogHead(connection);
+            connection.commit();
+            System.out.printf("Seeded %d authors, %d books and %d loans in %d ms%n", authorIds.length, bookIds.length,
+                    options.loans, (System.nanoTime() - started) / 1_000_000);
+            return bookIds;
+        }
+    }
+
+    private long[] seedAuthors(Connection connection, SplittableRandom random) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO authors (id, name, nationality) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < options.authors; i++) {
+                insert.setLong(1, i + 1);
+                insert.setString(2, authorName(i));
+                insert.setString(3, NATIONALITIES[random.nextInt(NATIONALITIES.length)]);
+                addBatch(insert, i);
+            }
+            insert.executeBatch();
+        }
+        restartSequence(connection, "authors_seq", options.authors);
+        return ids(connection, "authors", options.authors);
+    }
+
+    private long[] seedBooks(Connection connection, SplittableRandom random, long[] authorIds) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO books (id, title, isbn, publication_year, author_id) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < options.books; i++) {
+                insert.setLong(1, i + 1);
+                insert.setString(2, title(random));
+                insert.setString(3, String.format("978-%09d", i));
+                insert.setInt(4, 1800 + random.nextInt(LocalDate.now().getYear() - 1800 + 1));
+                insert.setLong(5, authorIds[random.nextInt(authorIds.length)]);
+                addBatch(insert, i);
+            }
+            insert.executeBatch();
+        }
+        restartSequence(connection, "books_seq", options.books);
+        return ids(connection, "books", options.books);
+    }
+
+    private void seedLoans(Connection connection, SplittableRandom random, long[] bookIds) throws SQLException {
+        LocalDate today = LocalDate.now();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO loans (id, book_id, borrower_name, loan_date, due_date, return_date, returned) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < options.loans; i++) {
+                double skew = random.nextDouble();
+                long bookId = bookIds[(int) (bookIds.length * skew * skew * skew)];
+                LocalDate loanDate = today.minusDays(random.nextInt(HISTORY_DAYS));
+                // Loans younger than the loan period are mostly still out; older ones mostly back.
+                boolean returned = loanDate.isBefore(today.minusDays(LOAN_DAYS))
+                        ? random.nextInt(10) != 0
+                        : random.nextInt(4) == 0;
+                insert.setLong(1, i + 1);
+                insert.setLong(2, bookId);
+                insert.setString(3, borrowerName(random.nextInt(options.borrowers)));
+                insert.setDate(4, Date.valueOf(loanDate));
+                insert.setDate(5, Date.valueOf(loanDate.plusDays(LOAN_DAYS)));
+                if (returned) {
+                    LocalDate returnDate = loanDate.plusDays(1 + random.nextInt(LOAN_DAYS + 7));
+                    insert.setDate(6, Date.valueOf(returnDate.isAfter(today) ? today : returnDate));
+                } else {
+                    insert.setNull(6, Types.DATE);
+                }
+                insert.setBoolean(7, returned);
+                addBatch(insert, i);
+            }
+            insert.executeBatch();
+        }
+        restartSequence(connection, "loans_seq", options.loans);
+    }
+
+    private void seedCopies(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE books SET copies = " + SPARE_COPIES
+                    + " + (SELECT count(*) FROM loans l WHERE l.book_id = books.id AND l.returned = false)");
+        }
+    }
+
+    /**
+     * Copies the titles of loaned books into loan-service's projection, as loan creation would have.
+     */
+    private void seedBookSummaries(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO book_summary (id, title) "
+                    + "SELECT b.id, b.title FROM books b WHERE b.id IN (SELECT l.book_id FROM loans l)");
+        }
+    }
+
+    /**
+     * Creates the outbox head that book-service's init script would, since the harness runs without it.
+     */
+    private void seedCatalogHead(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO catalog_change_head (id, last_seq) VALUES (1, 0) ON CONFLICT (id) DO NOTHING");
+        }
+    }
+
+    private static String title(SplittableRandom random) {
+        String first = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)];
+        String second = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)];
+        return "The " + Character.toUpperCase(first.charAt(0)) + first.substring(1) + " of the " + second;
+    }
+
+    private static void addBatch(PreparedStatement insert, int index) throws SQLException {
+        insert.addBatch();
+        if ((index + 1) % BATCH_SIZE == 0) {
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Ids come from pooled sequences, so they are assigned here and the sequence moved past them.
+     */
+    private static void restartSequence(Connection connection, String sequence, int rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (rows + 1));
+        }
+    }
+
+    private static long count(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT count(*) FROM " + table)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private static long[] ids(Connection connection, String table, int expected) throws SQLException {
+        long[] ids = new long[expected];
+        int n = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id FROM " + table + " ORDER BY id")) {
+            while (rows.next()) {
+                ids[n++] = rows.getLong(1);
+            }
+        }
+        return ids;
+    }
+}
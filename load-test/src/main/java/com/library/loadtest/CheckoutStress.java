@@ -0,0 +1,163 @@
+package com.library.loadtest;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Every client checks out and returns a handful of books that have one to ten copies,
+ * so most checkouts race for the same rows. Afterwards the active loans of each of those
+ * books are counted in the database and must not exceed its copies, and loan-service's
+ * availability count must match them.
+ */
+final class CheckoutStress {
+
+    private static final int BOOKS = 10;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    private final HttpClient httpClient;
+    private final URI gateway;
+    private final LoadTestOptions options;
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong returned = new AtomicLong();
+    private final AtomicLong unavailable = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    CheckoutStress(HttpClient httpClient, URI gateway, LoadTestOptions options) {
+        this.httpClient = httpClient;
+        this.gateway = gateway;
+        this.options = options;
+    }
+
+    /**
+     * @return whether no book was lent more often than it has copies
+     */
+    boolean run(DataSource dataSource) throws Exception {
+        long[] bookIds = new long[BOOKS];
+        for (int i = 0; i < BOOKS; i++) {
+            bookIds[i] = createBook(i);
+        }
+        System.out.printf("Running %s of checkouts and returns of %d books with %d clients%n",
+                options.duration, BOOKS, options.concurrency);
+        long end = System.nanoTime() + options.duration.toNanos();
+        List<Thread> clients = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(options.seed);
+        for (int i = 0; i < options.concurrency; i++) {
+            SplittableRandom random = seeds.split();
+            Thread client = new Thread(() -> drive(bookIds, random, end), "checkout-stress-" + i);
+            clients.add(client);
+            client.start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        double seconds = options.duration.toNanos() / 1e9;
+        long attempts = created.get() + unavailable.get() + conflicts.get();
+        System.out.printf("%d checkout attempts (%.1f/s): %d lent, %d unavailable, %d gave up on conflicts%n",
+                attempts, attempts / seconds, created.get(), unavailable.get(), conflicts.get());
+        System.out.printf("%d returns, %d shed by the gateway, %d errors%n", returned.get(), shed.get(), errors.get());
+        return verify(dataSource, bookIds);
+    }
+
+    private void drive(long[] bookIds, SplittableRandom random, long end) {
+        List<Long> held = new ArrayList<>();
+        while (System.nanoTime() < end) {
+            try {
+                if (!held.isEmpty() && random.nextBoolean()) {
+                    long loanId = held.remove(random.nextInt(held.size()));
+                    HttpResponse<String> response = send(HttpRequest.newBuilder(
+                                    gateway.resolve("/loan-service/api/loans/" + loanId + "/return"))
+                            .PUT(HttpRequest.BodyPublishers.noBody()));
+                    (response.statusCode() == 200 ? returned : outcome(response)).incrementAndGet();
+                } else {
+                    long bookId = bookIds[random.nextInt(bookIds.length)];
+                    HttpResponse<String> response = send(HttpRequest.newBuilder(gateway.resolve("/loan-service/api/loans"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(String.format(
+                                    "{\"bookId\":%d,\"borrowerName\":\"%s\"}", bookId, Thread.currentThread().getName()))));
+                    if (response.statusCode() == 200) {
+                        held.add(id(response.body()));
+                        created.incrementAndGet();
+                    } else if (response.statusCode() == 409) {
+                        (response.body().contains("conflicted") ? conflicts : unavailable).incrementAndGet();
+                    } else {
+                        outcome(response).incrementAndGet();
+                    }
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private AtomicLong outcome(HttpResponse<String> response) {
+        return response.statusCode() == 503 ? shed : errors;
+    }
+
+    private boolean verify(DataSource dataSource, long[] bookIds) throws SQLException {
+        String ids = Arrays.stream(bookIds).mapToObj(String::valueOf).collect(Collectors.joining(","));
+        boolean consistent = true;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT b.id, b.copies, "
+                     + "(SELECT count(*) FROM loans l WHERE l.book_id = b.id AND l.returned = false), a.active_loans "
+                     + "FROM books b LEFT JOIN book_availability a ON a.book_id = b.id WHERE b.id IN (" + ids + ") ORDER BY b.id")) {
+            while (rows.next()) {
+                long active = rows.getLong(3);
+                long counted = rows.getLong(4);
+                boolean ok = active <= rows.getInt(2) && counted == active;
+                consistent &= ok;
+                System.out.printf("book %d: %d copies, %d active loans, availability says %d%s%n",
+                        rows.getLong(1), rows.getInt(2), active, counted, ok ? "" : "  <-- inconsistent");
+            }
+        }
+        System.out.println(consistent ? "No book was lent beyond its copies" : "Availability was violated");
+        return consistent;
+    }
+
+    private long createBook(int index) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(gateway.resolve("/book-service/api/books"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(String.format(
+                        "{\"title\":\"Checkout stress %d\",\"isbn\":\"stress-%d-%d\",\"copies\":%d}",
+                        index, options.seed, index, 1 + index))));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not create a stress book: " + response.statusCode() + " " + response.body());
+        }
+        return id(response.body());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long id(String body) {
+        Matcher matcher = ID.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No id in " + body);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+}
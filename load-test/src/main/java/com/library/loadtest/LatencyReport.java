@@ -0,0 +1,77 @@
+package com.library.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.loadtest.LoadGenerator.RouteStats;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-route throughput and latency percentiles for the measured period, as a table
+ * and optionally as JSON.
+ */
+final class LatencyReport {
+
+    private final LoadTestOptions options;
+    private final List<Map<String, Object>> rows = new ArrayList<>();
+
+    LatencyReport(LoadTestOptions options, RouteStats[] stats) {
+        this.options = options;
+        RouteStats total = new RouteStats();
+        for (Route route : Route.values()) {
+            RouteStats routeStats = stats[route.ordinal()];
+            if (routeStats.latency.getTotalCount() > 0) {
+                rows.add(row(route.routeName(), routeStats));
+                total.add(routeStats);
+            }
+        }
+        rows.add(row("total", total));
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n%-24s %9s %8s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map<String, Object> row : rows) {
+            out.printf("%-24s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.get("route"), row.get("requests"), row.get("errors"), row.get("throughput"),
+                    row.get("p50Ms"), row.get("p99Ms"), row.get("p999Ms"), row.get("maxMs"));
+        }
+    }
+
+    void write(Path file) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("books", options.books);
+        report.put("loans", options.loans);
+        report.put("concurrency", options.concurrency);
+        report.put("rate", options.rate);
+        report.put("durationSeconds", options.duration.toMillis() / 1000.0);
+        report.put("virtualThreads", options.virtualThreads);
+        report.put("routes", rows);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    private Map<String, Object> row(String route, RouteStats stats) {
+        Histogram latency = stats.latency;
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("route", route);
+        row.put("requests", latency.getTotalCount());
+        row.put("errors", stats.errors);
+        row.put("throughput", latency.getTotalCount() / (options.duration.toMillis() / 1000.0));
+        row.put("p50Ms", millis(latency.getValueAtPercentile(50)));
+        row.put("p99Ms", millis(latency.getValueAtPercentile(99)));
+        row.put("p999Ms", millis(latency.getValueAtPercentile(99.9)));
+        row.put("maxMs", millis(latency.getMaxValue()));
+        return row;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
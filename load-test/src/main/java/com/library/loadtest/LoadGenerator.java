@@ -0,0 +1,156 @@
+package com.library.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the workload with a fixed number of client threads. Without a target rate
+ * each client sends its next request as soon as the previous one completes. With a
+ * rate, requests are scheduled at fixed intervals and latency is measured from the
+ * scheduled send time, so a stalled server shows up in the percentiles instead of
+ * silently lowering the request rate.
+ */
+final class LoadGenerator {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient httpClient;
+    private final Workload workload;
+    private final LoadTestOptions options;
+
+    LoadGenerator(HttpClient httpClient, Workload workload, LoadTestOptions options) {
+        this.httpClient = httpClient;
+        this.workload = workload;
+        this.options = options;
+    }
+
+    /**
+     * @return per-route latency and error counts for the measured period only
+     */
+    RouteStats[] run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        long interval = options.rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(options.concurrency) / options.rate) : 0;
+
+        List<Client> clients = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(options.seed);
+        for (int i = 0; i < options.concurrency; i++) {
+            // Stagger scheduled starts so clients do not fire in lockstep.
+            long firstSend = start + (interval > 0 ? interval * i / options.concurrency : 0);
+            Client client = new Client(seeds.split(), firstSend, interval, measureFrom, end);
+            clients.add(client);
+            client.thread.start();
+        }
+        RouteStats[] merged = RouteStats.forAllRoutes();
+        for (Client client : clients) {
+            client.thread.join();
+            for (int i = 0; i < merged.length; i++) {
+                merged[i].add(client.stats[i]);
+            }
+        }
+        return merged;
+    }
+
+    private final class Client implements Runnable {
+
+        private final SplittableRandom random;
+        private final long interval;
+        private final long measureFrom;
+        private final long end;
+        private final RouteStats[] stats = RouteStats.forAllRoutes();
+        private final Thread thread;
+        private long nextSend;
+
+        Client(SplittableRandom random, long firstSend, long interval, long measureFrom, long end) {
+            this.random = random;
+            this.nextSend = firstSend;
+            this.interval = interval;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.thread = new Thread(this, "load-client");
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                long sendAt = interval > 0 ? nextSend : System.nanoTime();
+                if (sendAt >= end) {
+                    return;
+                }
+                if (interval > 0) {
+                    nextSend += interval;
+                    long wait = sendAt - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                Route route = workload.next(random);
+                HttpRequest request = workload.request(route, random);
+                int status = send(request);
+                long latency = System.nanoTime() - sendAt;
+                if (sendAt >= measureFrom) {
+                    stats[route.ordinal()].record(TimeUnit.NANOSECONDS.toMicros(latency), status);
+                }
+            }
+        }
+
+        private int send(HttpRequest request) {
+            try {
+                return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                return -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+    }
+
+    static HttpClient newHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Latencies in microseconds, plus errors: transport failures and non-2xx responses.
+     */
+    static final class RouteStats {
+
+        final Histogram latency = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long errors;
+
+        static RouteStats[] forAllRoutes() {
+            RouteStats[] stats = new RouteStats[Route.values().length];
+            for (int i = 0; i < stats.length; i++) {
+                stats[i] = new RouteStats();
+            }
+            return stats;
+        }
+
+        void record(long micros, int status) {
+            latency.recordValue(Math.min(Math.max(micros, 1), HIGHEST_TRACKABLE_MICROS));
+            if (status < 200 || status >= 300) {
+                errors++;
+            }
+        }
+
+        void add(RouteStats other) {
+            latency.add(other.latency);
+            errors += other.errors;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.library.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * End-to-end load test: starts every service in this JVM against an embedded database,
+ * seeds a deterministic catalog and loan history, drives a mixed workload through the
+ * gateway and reports per-route latency percentiles and throughput.
+ */
+public final class LoadTest {
+
+    private static final Duration CATALOG_TIMEOUT = Duration.ofMinutes(2);
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        if (options.help) {
+            System.out.print(LoadTestOptions.USAGE);
+            return;
+        }
+
+        try (LocalServices services = new LocalServices(options)) {
+            services.startDataServices();
+            long[] bookIds = new CatalogSeeder(options).seed(services.dataSource());
+            services.reloadLoanIndexes();
+            services.startFrontServices();
+
+            HttpClient httpClient = LoadGenerator.newHttpClient();
+            if (options.checkoutStress) {
+                boolean consistent = new CheckoutStress(httpClient, services.gateway(), options).run(services.dataSource());
+                services.close();
+                System.exit(consistent ? 0 : 1);
+            }
+            awaitCatalog(httpClient, services.gateway());
+
+            System.out.printf("Running %s warm-up and %s measured with %d clients%s%n",
+                    options.warmup, options.duration, options.concurrency,
+                    options.rate > 0 ? " at " + options.rate + " req/s" : "");
+            Workload workload = new Workload(services.gateway(), bookIds, options);
+            LatencyReport report = new LatencyReport(options, new LoadGenerator(httpClient, workload, options).run());
+            report.print(System.out);
+            if (options.out != null) {
+                report.write(options.out);
+                System.out.println("Report written to " + options.out);
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Recommendation-service builds its catalog snapshot in the background after it starts.
+     */
+    private static void awaitCatalog(HttpClient httpClient, URI gateway) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(gateway.resolve("/recommendation-service/api/recommendations?count=1")).build();
+        long deadline = System.nanoTime() + CATALOG_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200 && !"[]".equals(response.body().trim())) {
+                return;
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Recommendation catalog was not loaded within " + CATALOG_TIMEOUT);
+    }
+}
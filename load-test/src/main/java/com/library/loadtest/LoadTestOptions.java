@@ -0,0 +1,99 @@
+package com.library.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}; see {@link #USAGE}.
+ */
+final class LoadTestOptions {
+
+    static final String USAGE = """
+            usage: java -jar load-test/target/load-test.jar [options]
+              --books=100000        books to seed
+              --authors=5000        authors to seed
+              --loans=200000        loans to seed
+              --borrowers=20000     distinct borrowers in the loan history
+              --seed=42             generator seed; the same seed gives the same data and request mix
+              --concurrency=32      concurrent client connections
+              --rate=0              target requests/second across all clients, 0 for closed loop
+              --warmup=10s          traffic before measuring starts
+              --duration=30s        measured traffic
+              --mix=route:weight,.. override route weights, e.g. --mix=loans-all:1,create-loan:0
+              --virtual-threads     run the services in virtual-thread mode (Java 21+)
+              --checkout-stress     instead of the mix, race concurrent checkouts of a few books and
+                                    verify no book is lent beyond its copies (uses concurrency, duration)
+              --db-url=<jdbc url>   use this database instead of an in-memory H2
+              --out=<file>          write the report as JSON
+            """;
+
+    int books = 100_000;
+    int authors = 5_000;
+    int loans = 200_000;
+    int borrowers = 20_000;
+    long seed = 42;
+    int concurrency = 32;
+    double rate = 0;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(30);
+    Map<String, Integer> mix = new HashMap<>();
+    boolean virtualThreads;
+    boolean checkoutStress;
+    String dbUrl = "jdbc:h2:mem:library;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+    String dbUsername = "sa";
+    String dbPassword = "";
+    Path out;
+    boolean help;
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+            String value = eq < 0 ? "" : arg.substring(eq + 1);
+            switch (name) {
+                case "books" -> options.books = Integer.parseInt(value);
+                case "authors" -> options.authors = Integer.parseInt(value);
+                case "loans" -> options.loans = Integer.parseInt(value);
+                case "borrowers" -> options.borrowers = Integer.parseInt(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "warmup" -> options.warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> options.duration = DurationStyle.detectAndParse(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "virtual-threads" -> options.virtualThreads = true;
+                case "checkout-stress" -> options.checkoutStress = true;
+                case "db-url" -> options.dbUrl = value;
+                case "db-username" -> options.dbUsername = value;
+                case "db-password" -> options.dbPassword = value;
+                case "out" -> options.out = Path.of(value);
+                case "help" -> options.help = true;
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        if (options.books < 1 || options.authors < 1 || options.borrowers < 1 || options.concurrency < 1) {
+            throw new IllegalArgumentException("books, authors, borrowers and concurrency must be positive");
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new HashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected route:weight, got " + entry);
+            }
+            mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
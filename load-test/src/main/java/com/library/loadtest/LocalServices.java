@@ -0,0 +1,132 @@
+package com.library.loadtest;
+
+import com.library.book.BookServiceApplication;
+import com.library.gateway.ApiGatewayApplication;
+import com.library.loan.LoanServiceApplication;
+import com.library.loan.overdue.OverdueSchedule;
+import com.library.loan.popularity.PopularityIndex;
+import com.library.recommendation.RecommendationServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs book-, loan- and recommendation-service and the gateway as separate Spring
+ * contexts inside this JVM, each on its own port and with its own configuration from
+ * {@code classpath:/load-test/}. Eureka is off; services address each other directly.
+ * <p>
+ * book- and loan-service start first so the database schema exists before seeding;
+ * recommendation-service and the gateway start afterwards so the catalog snapshot is
+ * built from the seeded data.
+ */
+final class LocalServices implements AutoCloseable {
+
+    private static final String CONFIG_LOCATION = "classpath:/load-test/common.yml,classpath:/load-test/%s.yml";
+
+    private final LoadTestOptions options;
+    private final Map<String, Object> sharedProperties = new HashMap<>();
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private final int bookPort = freePort();
+    private final int loanPort = freePort();
+    private final int recommendationPort = freePort();
+    private final int gatewayPort = freePort();
+    private ConfigurableApplicationContext bookService;
+    private ConfigurableApplicationContext loanService;
+
+    LocalServices(LoadTestOptions options) {
+        this.options = options;
+        sharedProperties.put("load-test.db-url", options.dbUrl);
+        sharedProperties.put("load-test.db-username", options.dbUsername);
+        sharedProperties.put("load-test.db-password", options.dbPassword);
+        sharedProperties.put("load-test.book-url", "http://localhost:" + bookPort);
+        sharedProperties.put("load-test.loan-url", "http://localhost:" + loanPort);
+        sharedProperties.put("load-test.recommendation-url", "http://localhost:" + recommendationPort);
+    }
+
+    void startDataServices() {
+        bookService = start("book-service", BookServiceApplication.class, WebApplicationType.SERVLET, bookPort);
+        loanService = start("loan-service", LoanServiceApplication.class, WebApplicationType.SERVLET, loanPort);
+    }
+
+    DataSource dataSource() {
+        return bookService.getBean(DataSource.class);
+    }
+
+    /**
+     * Loan-service builds its popularity index and overdue schedule when it starts,
+     * which is before the loan history has been seeded.
+     */
+    void reloadLoanIndexes() {
+        loanService.getBean(PopularityIndex.class).reload();
+        loanService.getBean(OverdueSchedule.class).reload();
+    }
+
+    void startFrontServices() {
+        start("recommendation-service", RecommendationServiceApplication.class, WebApplicationType.SERVLET, recommendationPort);
+        start("api-gateway", ApiGatewayApplication.class, WebApplicationType.REACTIVE, gatewayPort, GatewayServer.class);
+    }
+
+    URI gateway() {
+        return URI.create("http://localhost:" + gatewayPort);
+    }
+
+    @Override
+    public void close() {
+        List<ConfigurableApplicationContext> reversed = new ArrayList<>(contexts);
+        Collections.reverse(reversed);
+        reversed.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private ConfigurableApplicationContext start(String name, Class<?> application, WebApplicationType type,
+                                                 int port, Class<?>... extraSources) {
+        Map<String, Object> properties = new HashMap<>(sharedProperties);
+        properties.put("spring.config.location", String.format(CONFIG_LOCATION, name));
+        properties.put("server.port", port);
+        if (options.virtualThreads && type == WebApplicationType.SERVLET) {
+            properties.put("spring.threads.virtual.enabled", true);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(application)
+                .sources(extraSources)
+                .web(type)
+                .properties(properties)
+                .run();
+        contexts.add(context);
+        System.out.printf("Started %s on port %d%n", name, port);
+        return context;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The gateway needs Netty, but Tomcat is on the classpath too because of the
+     * servlet services; without this the reactive context would pick Tomcat.
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class GatewayServer {
+
+        @Bean
+        NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+            return new NettyReactiveWebServerFactory();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.library.loadtest;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * The requests the harness sends through the gateway, with their default share of
+ * the traffic. Routes with weight 0 are opt-in through {@code --mix}; they return
+ * the whole loan table and dominate everything else at realistic sizes.
+ */
+enum Route {
+
+    BOOK_BY_ID("book-by-id", 20) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/book-service/api/books/" + workload.anyBook(random);
+        }
+    },
+    BOOKS_PAGE("books-page", 5) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/book-service/api/books?limit=50&sort=title";
+        }
+    },
+    BOOKS_BATCH("books-batch", 5) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            StringBuilder ids = new StringBuilder();
+            for (int i = 0; i < 20; i++) {
+                ids.append(i == 0 ? "" : ",").append(workload.anyBook(random));
+            }
+            return "/book-service/api/books/batch?ids=" + ids;
+        }
+    },
+    BOOK_SEARCH("book-search", 5) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/book-service/api/books/search?limit=20&q=" + encode(workload.titleWord(random));
+        }
+    },
+    LOANS_PAGE("loans-page", 10) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/loan-service/api/loans?limit=50&sort=dueDate";
+        }
+    },
+    LOANS_BY_BORROWER("loans-by-borrower", 10) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/loan-service/api/loans/borrower/" + encode(workload.anyBorrower(random));
+        }
+    },
+    LOANS_ACTIVE("loans-active", 0) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/loan-service/api/loans/active";
+        }
+    },
+    LOANS_OVERDUE("loans-overdue", 0) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/loan-service/api/loans/overdue";
+        }
+    },
+    LOANS_ALL("loans-all", 0) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/loan-service/api/loans";
+        }
+    },
+    LOANS_POPULAR("loans-popular", 5) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/loan-service/api/loans/popular?limit=10";
+        }
+    },
+    ALSO_BORROWED("also-borrowed", 5) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/loan-service/api/loans/popular/" + workload.popularBook(random) + "/also-borrowed?limit=10";
+        }
+    },
+    CREATE_LOAN("create-loan", 5) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/loan-service/api/loans";
+        }
+
+        @Override
+        HttpRequest.BodyPublisher body(Workload workload, SplittableRandom random) {
+            return HttpRequest.BodyPublishers.ofString(String.format("{\"bookId\":%d,\"borrowerName\":\"%s\"}",
+                    workload.popularBook(random), workload.anyBorrower(random)));
+        }
+    },
+    RECOMMENDATIONS("recommendations", 10) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/recommendation-service/api/recommendations?count=5";
+        }
+    },
+    RECOMMENDATIONS_BY_AUTHOR("recommendations-author", 10) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/recommendation-service/api/recommendations/author/" + encode(workload.anyAuthor(random));
+        }
+    },
+    RECOMMENDATIONS_SEARCH("recommendations-search", 5) {
+        @Override
+        String path(Workload workload, SplittableRandom random) {
+            return "/recommendation-service/api/recommendations/search?limit=20&q=" + encode(workload.titleWord(random));
+        }
+    };
+
+    private final String routeName;
+    private final int defaultWeight;
+
+    Route(String routeName, int defaultWeight) {
+        this.routeName = routeName;
+        this.defaultWeight = defaultWeight;
+    }
+
+    String routeName() { return routeName; }
+
+    int defaultWeight() { return defaultWeight; }
+
+    abstract String path(Workload workload, SplittableRandom random);
+
+    /**
+     * @return the JSON body to POST, or {@code null} for a GET
+     */
+    HttpRequest.BodyPublisher body(Workload workload, SplittableRandom random) {
+        return null;
+    }
+
+    static Route named(String name) {
+        for (Route route : values()) {
+            if (route.routeName.equals(name)) {
+                return route;
+            }
+        }
+        throw new IllegalArgumentException("Unknown route: " + name);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,92 @@
+package com.library.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Picks the next route by weight and fills in its parameters from the seeded data:
+ * book ids, author names and borrowers that exist, and title words that match.
+ */
+final class Workload {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI gateway;
+    private final long[] bookIds;
+    private final int authors;
+    private final int borrowers;
+    private final Route[] routes;
+    private final int[] cumulativeWeights;
+
+    Workload(URI gateway, long[] bookIds, LoadTestOptions options) {
+        this.gateway = gateway;
+        this.bookIds = bookIds;
+        this.authors = options.authors;
+        this.borrowers = options.borrowers;
+        this.routes = Route.values();
+        this.cumulativeWeights = new int[routes.length];
+        for (String name : options.mix.keySet()) {
+            Route.named(name);
+        }
+        int total = 0;
+        for (int i = 0; i < routes.length; i++) {
+            total += weight(routes[i], options.mix);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Every route has weight 0");
+        }
+    }
+
+    Route next(SplittableRandom random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < routes.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return routes[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    HttpRequest request(Route route, SplittableRandom random) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(gateway.resolve(route.path(this, random)))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json");
+        HttpRequest.BodyPublisher body = route.body(this, random);
+        if (body != null) {
+            builder.header("Content-Type", "application/json").POST(body);
+        }
+        return builder.build();
+    }
+
+    long anyBook(SplittableRandom random) {
+        return bookIds[random.nextInt(bookIds.length)];
+    }
+
+    /**
+     * Skewed the same way as the seeded loan history.
+     */
+    long popularBook(SplittableRandom random) {
+        double skew = random.nextDouble();
+        return bookIds[(int) (bookIds.length * skew * skew * skew)];
+    }
+
+    String anyAuthor(SplittableRandom random) {
+        return CatalogSeeder.authorName(random.nextInt(authors));
+    }
+
+    String anyBorrower(SplittableRandom random) {
+        return CatalogSeeder.borrowerName(random.nextInt(borrowers));
+    }
+
+    String titleWord(SplittableRandom random) {
+        return CatalogSeeder.TITLE_WORDS[random.nextInt(CatalogSeeder.TITLE_WORDS.length)];
+    }
+
+    private static int weight(Route route, Map<String, Integer> mix) {
+        return mix.getOrDefault(route.routeName(), route.defaultWeight());
+    }
+}
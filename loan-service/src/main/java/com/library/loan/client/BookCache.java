@@ -0,0 +1,223 @@
+package com.library.loan.client;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.loan.dto.BookDTO;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Size-bounded, TTL-based near-cache of book metadata in front of {@link BookClient}.
+ * Concurrent misses for the same id share one in-flight load, and bulk lookups only
+ * ask book-service for the ids that are not cached yet. {@link BookChangeFeed} keeps
+ * the cached books current between loads.
+ * <p>
+ * Every book fetched is also kept as last known good for
+ * {@code library.book-cache.last-known-good-retention}. While book-service fails or its
+ * circuit is open, expired books are served from there instead of going missing.
+ * <p>
+ * Loads run on a fixed pool of {@code library.book-cache.load-threads} threads, virtual
+ * ones in virtual-thread mode. Caffeine starts a load inside a {@code ConcurrentHashMap}
+ * compute, so a load on the caller's thread would hold up every other id in the same
+ * bin for the whole call to book-service.
+ */
+@Component
+public class BookCache implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookCache.class);
+    private static final int BOOK_BATCH_SIZE = 500;
+
+    private final BookClient bookClient;
+    private final ExecutorService loadExecutor;
+    private final AsyncLoadingCache<Long, BookDTO> cache;
+    private final Cache<Long, BookDTO> lastKnownGood;
+
+    public BookCache(BookClient bookClient,
+                     MeterRegistry meterRegistry,
+                     Environment environment,
+                     @Value("${library.book-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${library.book-cache.ttl:10m}") Duration ttl,
+                     @Value("${library.book-cache.last-known-good-retention:24h}") Duration lastKnownGoodRetention,
+                     @Value("${library.book-cache.load-threads:16}") int loadThreads) {
+        this.bookClient = bookClient;
+        this.loadExecutor = loadExecutor(environment, loadThreads);
+        this.lastKnownGood = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(lastKnownGoodRetention)
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .executor(loadExecutor)
+                .recordStats()
+                .buildAsync(new BookLoader());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "books");
+    }
+
+    /**
+     * @return the book, or {@code null} if book-service does not know it
+     */
+    public BookDTO get(Long id) {
+        try {
+            return cache.get(id).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * @return the known books by id; ids that do not exist or could not be fetched are absent
+     */
+    public Map<Long, BookDTO> getAll(Collection<Long> ids) {
+        try {
+            return cache.getAll(ids).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Replaces a cached book with the book as it is now, e.g. as announced on book-service's
+     * change feed. Books that are not cached stay out, so the cache only holds books that
+     * were asked for. A load in flight is replaced as well.
+     */
+    public void put(BookDTO book) {
+        cache.asMap().computeIfPresent(book.getId(), (id, cached) -> CompletableFuture.completedFuture(book));
+        lastKnownGood.asMap().computeIfPresent(book.getId(), (id, known) -> book);
+    }
+
+    /**
+     * Updates the author name on every cached book of that author.
+     */
+    public void renameAuthor(Long authorId, String name) {
+        for (Map<Long, BookDTO> books : List.of(cache.synchronous().asMap(), lastKnownGood.asMap())) {
+            books.replaceAll((id, book) -> authorId.equals(book.getAuthorId()) ? withAuthorName(book, name) : book);
+        }
+    }
+
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+        lastKnownGood.invalidate(id);
+    }
+
+    /**
+     * Fetches every cached book again in the background. The cached copies keep being
+     * served until the new ones arrive.
+     */
+    public void refreshAll() {
+        cache.synchronous().refreshAll(List.copyOf(cache.asMap().keySet()));
+    }
+
+    /**
+     * Drops the cached books but keeps the last known good copies to fall back on.
+     */
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private static BookDTO withAuthorName(BookDTO book, String name) {
+        BookDTO renamed = new BookDTO();
+        renamed.setId(book.getId());
+        renamed.setTitle(book.getTitle());
+        renamed.setIsbn(book.getIsbn());
+        renamed.setPublicationYear(book.getPublicationYear());
+        renamed.setCopies(book.getCopies());
+        renamed.setAuthorId(book.getAuthorId());
+        renamed.setAuthorName(name);
+        return renamed;
+    }
+
+    @Override
+    public void destroy() {
+        loadExecutor.shutdownNow();
+    }
+
+    private static ExecutorService loadExecutor(Environment environment, int threads) {
+        ThreadFactory threadFactory;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            threadFactory = new VirtualThreadTaskExecutor("book-cache-load-").getVirtualThreadFactory();
+        } else {
+            CustomizableThreadFactory platformThreads = new CustomizableThreadFactory("book-cache-load-");
+            platformThreads.setDaemon(true);
+            threadFactory = platformThreads;
+        }
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+
+    private class BookLoader implements CacheLoader<Long, BookDTO> {
+
+        @Override
+        public BookDTO load(Long id) {
+            try {
+                BookDTO book = bookClient.getBookById(id);
+                lastKnownGood.put(id, book);
+                return book;
+            } catch (FeignException.NotFound e) {
+                lastKnownGood.invalidate(id);
+                return null;
+            } catch (RuntimeException e) {
+                BookDTO known = lastKnownGood.getIfPresent(id);
+                if (known == null) {
+                    throw e;
+                }
+                logger.warn("Serving last known good book {}: {}", id, e.getMessage());
+                return known;
+            }
+        }
+
+        /**
+         * Fetches in chunks through the batch endpoint. A failed chunk is served from the
+         * last known good books; those it does not have are left out of the result rather
+         * than failing the whole lookup, and are not cached.
+         */
+        @Override
+        public Map<Long, BookDTO> loadAll(Set<? extends Long> ids) {
+            Map<Long, BookDTO> books = new HashMap<>();
+            List<Long> pending = new ArrayList<>(ids);
+            for (int from = 0; from < pending.size(); from += BOOK_BATCH_SIZE) {
+                List<Long> chunk = pending.subList(from, Math.min(from + BOOK_BATCH_SIZE, pending.size()));
+                try {
+                    for (BookDTO book : bookClient.getBooksByIds(chunk)) {
+                        books.put(book.getId(), book);
+                        lastKnownGood.put(book.getId(), book);
+                    }
+                } catch (Exception e) {
+                    Map<Long, BookDTO> known = lastKnownGood.getAllPresent(chunk);
+                    books.putAll(known);
+                    logger.warn("Failed to fetch {} books from book-service, {} served from last known good: {}",
+                            chunk.size(), known.size(), e.getMessage());
+                }
+            }
+            return books;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.library.loan.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.loan.dto.BookDTO;
+import com.library.loan.dto.CatalogChangeDTO;
+import com.library.loan.dto.ChangeBatch;
+import com.library.loan.service.BookSummaryProjection;
+import feign.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows book-service's catalog change feed and applies each change to {@link BookCache}
+ * and the book summaries, so a cached book is replaced as soon as it changes rather than
+ * when it expires. If the feed shows a gap, every cached book is evicted and loaded again
+ * on demand; summaries are left to the next reconciliation. A bulk import appears as a
+ * single marker change, on which the cached books are refreshed in the background.
+ */
+@Component
+public class BookChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookChangeFeed.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final BookClient bookClient;
+    private final BookCache bookCache;
+    private final BookSummaryProjection bookSummaries;
+    private final ObjectMapper objectMapper;
+    private final long waitSeconds;
+    private final Request.Options pollOptions;
+    private long lastSeq = -1;
+    private boolean failing;
+
+    public BookChangeFeed(BookClient bookClient, BookCache bookCache, BookSummaryProjection bookSummaries,
+                          ObjectMapper objectMapper, @Value("${library.book-feed.wait:20s}") Duration wait) {
+        this.bookClient = bookClient;
+        this.bookCache = bookCache;
+        this.bookSummaries = bookSummaries;
+        this.objectMapper = objectMapper;
+        this.waitSeconds = wait.toSeconds();
+        this.pollOptions = new Request.Options(1, TimeUnit.SECONDS, waitSeconds + 5, TimeUnit.SECONDS, true);
+    }
+
+    @Scheduled(fixedDelayString = "${library.book-feed.poll-interval:PT1S}")
+    public void follow() {
+        try {
+            if (lastSeq < 0) {
+                lastSeq = bookClient.getChanges(0, 0, 0, pollOptions).getLastSeq();
+                bookCache.evictAll();
+                logger.info("Following book changes after {}", lastSeq);
+            }
+            ChangeBatch batch;
+            do {
+                batch = bookClient.getChanges(lastSeq, BATCH_SIZE, waitSeconds, pollOptions);
+                if (!batch.follows(lastSeq)) {
+                    logger.warn("Gap in book changes after {} (feed at {}), evicting cached books", lastSeq, batch.getLastSeq());
+                    lastSeq = -1;
+                    return;
+                }
+                for (CatalogChangeDTO change : batch.getChanges()) {
+                    apply(change);
+                    lastSeq = change.getSeq();
+                }
+            } while (batch.getChanges().size() == BATCH_SIZE);
+            failing = false;
+        } catch (Exception e) {
+            if (!failing) {
+                logger.warn("Could not follow book changes after {}: {}", lastSeq, e.getMessage());
+            }
+            failing = true;
+        }
+    }
+
+    private void apply(CatalogChangeDTO change) throws JsonProcessingException {
+        if ("BOOK".equals(change.getEntityType())) {
+            if (change.getPayload() == null || change.getPayload().isNull()) {
+                bookCache.invalidate(change.getEntityId());
+            } else {
+                BookDTO book = objectMapper.treeToValue(change.getPayload(), BookDTO.class);
+                bookCache.put(book);
+                bookSummaries.update(book);
+            }
+        } else if ("AUTHOR".equals(change.getEntityType()) && "UPDATED".equals(change.getType())) {
+            bookCache.renameAuthor(change.getEntityId(), change.getPayload().path("name").asText(null));
+        } else if ("CATALOG".equals(change.getEntityType()) && "IMPORTED".equals(change.getType())) {
+            logger.info("Catalog imported, refreshing cached books");
+            bookCache.refreshAll();
+        }
+    }
+}
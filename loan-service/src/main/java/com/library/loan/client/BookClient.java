@@ -1,10 +1,18 @@
 package com.library.loan.client;
 
 import com.library.loan.dto.BookDTO;
+import com.library.loan.dto.ChangeBatch;
+import com.library.loan.dto.CursorPage;
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @FeignClient(name = "book-service", url = "${BOOK_SERVICE_URL:http://localhost:8081}")
@@ -15,4 +23,33 @@ public interface BookClient {
 
     @GetMapping("/api/books/{id}")
     BookDTO getBookById(@PathVariable("id") Long id);
+
+    @PostMapping("/api/books/batch")
+    List<BookDTO> getBooksByIds(@RequestBody Collection<Long> ids);
+
+    @GetMapping("/api/books")
+    CursorPage<BookDTO> getBooksPage(@RequestParam("limit") int limit,
+                                     @RequestParam(value = "after", required = false) String after);
+
+    /**
+     * Long-polls the catalog change feed. {@code options} carries a read timeout longer
+     * than {@code waitSeconds}.
+     */
+    @GetMapping("/api/books/changes")
+    ChangeBatch getChanges(@RequestParam("since") long since, @RequestParam("limit") int limit,
+                           @RequestParam("wait") long waitSeconds, Request.Options options);
+
+    /**
+     * Walks the whole catalog page by page instead of pulling it in one response.
+     */
+    default List<BookDTO> getAllBooksByPage(int pageSize) {
+        List<BookDTO> books = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<BookDTO> page = getBooksPage(pageSize, after);
+            books.addAll(page.getItems());
+            after = page.getNextCursor();
+        } while (after != null);
+        return books;
+    }
 }
@@ -0,0 +1,86 @@
+package com.library.loan.client;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Guards every Feign method with its own circuit breaker, semaphore bulkhead and read
+ * timeout, named {@code <client>-<method>} (e.g. {@code book-service-getBookById}) and
+ * configured under {@code resilience4j.*}. The read timeout is the method's time limiter
+ * duration, applied to the socket so the call stays on the caller's thread. Server errors
+ * count as failures, 4xx responses do not. Failed calls still throw; {@link BookCache}
+ * falls back to the books it last saw.
+ */
+@Component
+public class ResilienceCapability implements Capability {
+
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final TimeLimiterRegistry timeLimiters;
+
+    public ResilienceCapability(CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads,
+                                TimeLimiterRegistry timeLimiters) {
+        this.circuitBreakers = circuitBreakers;
+        this.bulkheads = bulkheads;
+        this.timeLimiters = timeLimiters;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> call(client, request, options, name(request));
+    }
+
+    private Response call(Client client, Request request, Request.Options options, String name) throws IOException {
+        CircuitBreaker breaker = circuitBreakers.circuitBreaker(name);
+        Bulkhead bulkhead = bulkheads.bulkhead(name);
+        TimeLimiter timeLimiter = timeLimiters.timeLimiter(name);
+        long readTimeout = Math.min(options.readTimeoutMillis(),
+                timeLimiter.getTimeLimiterConfig().getTimeoutDuration().toMillis());
+        Request.Options limited = new Request.Options(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS,
+                readTimeout, TimeUnit.MILLISECONDS, options.isFollowRedirects());
+
+        breaker.acquirePermission();
+        if (!bulkhead.tryAcquirePermission()) {
+            breaker.releasePermission();
+            throw BulkheadFullException.createBulkheadFullException(bulkhead);
+        }
+        long start = System.nanoTime();
+        try {
+            Response response = client.execute(request, limited);
+            if (response.status() >= 500) {
+                breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS,
+                        new IOException("HTTP " + response.status() + " from " + name));
+            } else {
+                breaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            timeLimiter.onSuccess();
+            return response;
+        } catch (IOException | RuntimeException e) {
+            breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            timeLimiter.onError(e instanceof SocketTimeoutException ? new TimeoutException(e.getMessage()) : e);
+            throw e;
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    private static String name(Request request) {
+        return request.requestTemplate().feignTarget().name() + "-"
+                + request.requestTemplate().methodMetadata().method().getName();
+    }
+}
@@ -1,7 +1,10 @@
 package com.library.loan.controller;
 
+import com.library.loan.dto.CursorPage;
+import com.library.loan.dto.LoanBatchResult;
 import com.library.loan.dto.LoanWithBookDTO;
 import com.library.loan.entity.Loan;
+import com.library.loan.service.LoanCheckout;
 import com.library.loan.service.LoanService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -16,10 +19,14 @@ import java.util.Map;
 @RequestMapping("/api/loans")
 public class LoanController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final LoanService loanService;
+    private final LoanCheckout loanCheckout;
 
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, LoanCheckout loanCheckout) {
         this.loanService = loanService;
+        this.loanCheckout = loanCheckout;
     }
 
     @GetMapping
@@ -27,6 +34,13 @@ public class LoanController {
         return loanService.getAllLoans();
     }
 
+    @GetMapping(params = "limit")
+    public CursorPage<LoanWithBookDTO> getLoansPage(@RequestParam("limit") int limit,
+                                                    @RequestParam(value = "after", required = false) String after,
+                                                    @RequestParam(value = "sort", defaultValue = "id") String sort) {
+        return loanService.getLoansPage(CursorPage.clampLimit(limit), after, sort);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<LoanWithBookDTO> getLoanById(@PathVariable("id") Long id) {
         return loanService.getLoanById(id)
@@ -39,21 +53,45 @@ public class LoanController {
         return loanService.getActiveLoans();
     }
 
+    @GetMapping("/overdue")
+    public List<LoanWithBookDTO> getOverdueLoans() {
+        return loanService.getOverdueLoans();
+    }
+
+    /**
+     * Checks out a book; 409 if every copy is on loan or concurrent checkouts kept conflicting.
+     */
     @PostMapping
     public ResponseEntity<?> createLoan(@Valid @RequestBody Loan loan) {
-        try {
-            Loan createdLoan = loanService.createLoan(loan);
-            if (createdLoan == null) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Book not found");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-            }
-            return ResponseEntity.ok(createdLoan);
-        } catch (Exception e) {
+        Loan createdLoan = loanCheckout.createLoan(loan);
+        if (createdLoan == null) {
             Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            error.put("error", "Book not found");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        return ResponseEntity.ok(createdLoan);
+    }
+
+    /**
+     * Checks out several books at once; each item is reported as created or why it was not.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<LoanBatchResult>> createLoans(@RequestBody List<Loan> loans) {
+        if (loans.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(loanCheckout.createLoans(loans));
+    }
+
+    /**
+     * Returns several loans at once; each id is reported as returned, unknown or already returned.
+     */
+    @PutMapping("/return")
+    public ResponseEntity<List<LoanBatchResult>> returnBooks(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
         }
+        return ResponseEntity.ok(loanService.returnLoans(ids));
     }
 
     @PutMapping("/{id}/return")
@@ -0,0 +1,55 @@
+package com.library.loan.controller;
+
+import com.library.loan.client.BookCache;
+import com.library.loan.dto.BookDTO;
+import com.library.loan.dto.BookPopularityDTO;
+import com.library.loan.popularity.PopularityIndex;
+import com.library.loan.popularity.PopularityIndex.BookCount;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/loans")
+public class PopularityController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final PopularityIndex popularityIndex;
+    private final BookCache bookCache;
+
+    public PopularityController(PopularityIndex popularityIndex, BookCache bookCache) {
+        this.popularityIndex = popularityIndex;
+        this.bookCache = bookCache;
+    }
+
+    @GetMapping("/popular")
+    public List<BookPopularityDTO> getMostBorrowed(@RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return withTitles(popularityIndex.mostBorrowed(clamp(limit)));
+    }
+
+    @GetMapping("/popular/{bookId}/also-borrowed")
+    public List<BookPopularityDTO> getAlsoBorrowed(@PathVariable("bookId") Long bookId,
+                                                   @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return withTitles(popularityIndex.alsoBorrowed(bookId, clamp(limit)));
+    }
+
+    private List<BookPopularityDTO> withTitles(List<BookCount> counts) {
+        Map<Long, BookDTO> books;
+        try {
+            books = bookCache.getAll(counts.stream().map(BookCount::getBookId).collect(Collectors.toList()));
+        } catch (Exception e) {
+            books = Map.of();
+        }
+        Map<Long, BookDTO> known = books;
+        return counts.stream()
+                .map(count -> new BookPopularityDTO(count.getBookId(), known.get(count.getBookId()), count.getCount()))
+                .collect(Collectors.toList());
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
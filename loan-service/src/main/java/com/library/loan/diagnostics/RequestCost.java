@@ -0,0 +1,46 @@
+package com.library.loan.diagnostics;
+
+/**
+ * SQL statements and remote calls made by the thread handling the current request.
+ */
+final class RequestCost {
+
+    private static final ThreadLocal<RequestCost> CURRENT = new ThreadLocal<>();
+
+    private int queries;
+    private int remoteCalls;
+
+    private RequestCost() {}
+
+    static RequestCost begin() {
+        RequestCost cost = new RequestCost();
+        CURRENT.set(cost);
+        return cost;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static RequestCost current() {
+        return CURRENT.get();
+    }
+
+    static void recordQuery() {
+        RequestCost cost = CURRENT.get();
+        if (cost != null) {
+            cost.queries++;
+        }
+    }
+
+    static void recordRemoteCall() {
+        RequestCost cost = CURRENT.get();
+        if (cost != null) {
+            cost.remoteCalls++;
+        }
+    }
+
+    int getQueries() { return queries; }
+
+    int getRemoteCalls() { return remoteCalls; }
+}
@@ -0,0 +1,43 @@
+package com.library.loan.diagnostics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * With {@code library.request-cost.headers} on, reports the request's cost so far in
+ * {@code X-Query-Count} and {@code X-Remote-Call-Count} response headers, so tests and
+ * load runs can assert on it. Written just before the body, so anything lazily loaded
+ * during serialization is not included.
+ */
+@ControllerAdvice
+public class RequestCostAdvice implements ResponseBodyAdvice<Object> {
+
+    private final boolean enabled;
+
+    public RequestCostAdvice(@Value("${library.request-cost.headers:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestCost cost = RequestCost.current();
+        if (cost != null) {
+            response.getHeaders().set("X-Query-Count", Integer.toString(cost.getQueries()));
+            response.getHeaders().set("X-Remote-Call-Count", Integer.toString(cost.getRemoteCalls()));
+        }
+        return body;
+    }
+}
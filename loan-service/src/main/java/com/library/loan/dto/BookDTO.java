@@ -5,6 +5,7 @@ public class BookDTO {
     private String title;
     private String isbn;
     private Integer publicationYear;
+    private int copies = 1;
     private Long authorId;
     private String authorName;
 
@@ -23,6 +24,9 @@ public class BookDTO {
     public Integer getPublicationYear() { return publicationYear; }
     public void setPublicationYear(Integer publicationYear) { this.publicationYear = publicationYear; }
 
+    public int getCopies() { return copies; }
+    public void setCopies(int copies) { this.copies = copies; }
+
     public Long getAuthorId() { return authorId; }
     public void setAuthorId(Long authorId) { this.authorId = authorId; }
 
@@ -0,0 +1,32 @@
+package com.library.loan.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One entry of book-service's catalog change feed. {@code payload} is the book or
+ * author after the change, or {@code null} for a deletion.
+ */
+public class CatalogChangeDTO {
+    private long seq;
+    private String entityType;
+    private Long entityId;
+    private String type;
+    private JsonNode payload;
+
+    public CatalogChangeDTO() {}
+
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public JsonNode getPayload() { return payload; }
+    public void setPayload(JsonNode payload) { this.payload = payload; }
+}
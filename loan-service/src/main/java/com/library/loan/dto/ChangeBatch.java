@@ -0,0 +1,34 @@
+package com.library.loan.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch read from book-service's change feed, oldest change first.
+ */
+public class ChangeBatch {
+    private List<CatalogChangeDTO> changes = new ArrayList<>();
+    private long lastSeq;
+
+    public ChangeBatch() {}
+
+    public List<CatalogChangeDTO> getChanges() { return changes; }
+    public void setChanges(List<CatalogChangeDTO> changes) { this.changes = changes; }
+
+    public long getLastSeq() { return lastSeq; }
+    public void setLastSeq(long lastSeq) { this.lastSeq = lastSeq; }
+
+    /**
+     * @return whether this batch continues right after {@code since}; if not, changes were
+     *         purged before they were read or the feed was reset, and the copy must be reloaded
+     */
+    public boolean follows(long since) {
+        if (lastSeq < since) {
+            return false;
+        }
+        if (changes.isEmpty()) {
+            return lastSeq == since;
+        }
+        return changes.get(0).getSeq() == since + 1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.library.loan.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a page sorted by a non-unique key, with the id
+ * as tie-breaker. Encoded as an opaque URL-safe string.
+ */
+public class KeysetCursor {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String key;
+    private final Long id;
+
+    public KeysetCursor(String key, Long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public String getKey() { return key; }
+
+    public Long getId() { return id; }
+
+    public String encode() {
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(raw.substring(0, separator), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static Long decodeId(String cursor) {
+        try {
+            return Long.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.loan.dto;
+
+/**
+ * Outcome of one item of a batch checkout or return, reported in request order.
+ */
+public class LoanBatchResult {
+
+    public enum Status { CREATED, RETURNED, INVALID, BOOK_NOT_FOUND, UNAVAILABLE, NOT_FOUND, ALREADY_RETURNED }
+
+    private int index;
+    private Long loanId;
+    private Status status;
+    private String error;
+
+    public LoanBatchResult() {}
+
+    public LoanBatchResult(int index, Long loanId, Status status, String error) {
+        this.index = index;
+        this.loanId = loanId;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public Long getLoanId() { return loanId; }
+    public void setLoanId(Long loanId) { this.loanId = loanId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
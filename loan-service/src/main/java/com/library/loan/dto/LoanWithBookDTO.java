@@ -16,14 +16,27 @@ public class LoanWithBookDTO {
     public LoanWithBookDTO() {}
 
     public LoanWithBookDTO(Loan loan, BookDTO book) {
-        this.id = loan.getId();
-        this.bookId = loan.getBookId();
-        this.bookTitle = book != null ? book.getTitle() : "Unknown";
-        this.borrowerName = loan.getBorrowerName();
-        this.loanDate = loan.getLoanDate();
-        this.dueDate = loan.getDueDate();
-        this.returnDate = loan.getReturnDate();
-        this.returned = loan.isReturned();
+        this(loan, book != null ? book.getTitle() : null);
+    }
+
+    public LoanWithBookDTO(Loan loan, String bookTitle) {
+        this(loan.getId(), loan.getBookId(), bookTitle, loan.getBorrowerName(), loan.getLoanDate(),
+                loan.getDueDate(), loan.getReturnDate(), loan.isReturned());
+    }
+
+    /**
+     * @param bookTitle the title, or {@code null} if the book is unknown
+     */
+    public LoanWithBookDTO(Long id, Long bookId, String bookTitle, String borrowerName, LocalDate loanDate,
+                           LocalDate dueDate, LocalDate returnDate, boolean returned) {
+        this.id = id;
+        this.bookId = bookId;
+        this.bookTitle = bookTitle != null ? bookTitle : "Unknown";
+        this.borrowerName = borrowerName;
+        this.loanDate = loanDate;
+        this.dueDate = dueDate;
+        this.returnDate = returnDate;
+        this.returned = returned;
     }
 
     public Long getId() { return id; }
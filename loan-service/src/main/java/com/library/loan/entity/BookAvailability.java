@@ -0,0 +1,48 @@
+package com.library.loan.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Number of active loans of a book, checked against the book's copies at checkout.
+ * Checkouts change it under optimistic locking, so two concurrent checkouts cannot
+ * both take the last copy; the loser's transaction fails and is retried. Returns
+ * decrement it with a single update. A row is created on the book's first checkout.
+ */
+@Entity
+@Table(name = "book_availability")
+public class BookAvailability {
+
+    // The book's id in book-service.
+    @Id
+    private Long bookId;
+
+    @Column(nullable = false)
+    private int activeLoans;
+
+    @Version
+    private long version;
+
+    public BookAvailability() {}
+
+    public BookAvailability(Long bookId, int activeLoans) {
+        this.bookId = bookId;
+        this.activeLoans = activeLoans;
+    }
+
+    /**
+     * Takes a copy for a new loan.
+     *
+     * @return false if all {@code copies} are already on loan
+     */
+    public boolean reserve(int copies) {
+        if (activeLoans >= copies) {
+            return false;
+        }
+        activeLoans++;
+        return true;
+    }
+
+    public Long getBookId() { return bookId; }
+
+    public int getActiveLoans() { return activeLoans; }
+}
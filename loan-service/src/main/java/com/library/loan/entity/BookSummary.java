@@ -0,0 +1,33 @@
+package com.library.loan.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Local copy of the book fields that loan reads show, kept in loan-service's own
+ * schema so listing loans is a join instead of a call to book-service. Rows are
+ * written when a book is first loaned and kept current from book-service's change
+ * feed and by {@code BookSummaryProjection#reconcile}.
+ */
+@Entity
+@Table(name = "book_summary")
+public class BookSummary {
+
+    // The book's id in book-service.
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    public BookSummary() {}
+
+    public BookSummary(Long id, String title) {
+        this.id = id;
+        this.title = title;
+    }
+
+    public Long getId() { return id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+}
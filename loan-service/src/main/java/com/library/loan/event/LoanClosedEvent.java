@@ -0,0 +1,17 @@
+package com.library.loan.event;
+
+import com.library.loan.entity.Loan;
+
+/**
+ * A loan stopped being active: it was returned or deleted.
+ */
+public class LoanClosedEvent {
+
+    private final Loan loan;
+
+    public LoanClosedEvent(Loan loan) {
+        this.loan = loan;
+    }
+
+    public Loan getLoan() { return loan; }
+}
@@ -0,0 +1,14 @@
+package com.library.loan.event;
+
+import com.library.loan.entity.Loan;
+
+public class LoanCreatedEvent {
+
+    private final Loan loan;
+
+    public LoanCreatedEvent(Loan loan) {
+        this.loan = loan;
+    }
+
+    public Loan getLoan() { return loan; }
+}
@@ -0,0 +1,21 @@
+package com.library.loan.event;
+
+import java.time.LocalDate;
+
+/**
+ * An active loan passed its due date. Raised once, on the first check after the due date.
+ */
+public class LoanOverdueEvent {
+
+    private final long loanId;
+    private final LocalDate dueDate;
+
+    public LoanOverdueEvent(long loanId, LocalDate dueDate) {
+        this.loanId = loanId;
+        this.dueDate = dueDate;
+    }
+
+    public long getLoanId() { return loanId; }
+
+    public LocalDate getDueDate() { return dueDate; }
+}
@@ -0,0 +1,11 @@
+package com.library.loan.exception;
+
+/**
+ * Every copy of the book is on loan.
+ */
+public class BookUnavailableException extends RuntimeException {
+
+    public BookUnavailableException(Long bookId) {
+        super("No copy of book " + bookId + " is available");
+    }
+}
@@ -0,0 +1,31 @@
+package com.library.loan.overdue;
+
+import com.library.loan.event.LoanOverdueEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports each loan that became overdue: one log line per loan, for whoever follows up
+ * with the borrower, and the {@code library.loans.became-overdue} counter.
+ */
+@Component
+public class OverdueNotices {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueNotices.class);
+
+    private final Counter becameOverdue;
+
+    public OverdueNotices(MeterRegistry meterRegistry) {
+        this.becameOverdue = meterRegistry.counter("library.loans.became-overdue");
+    }
+
+    @EventListener
+    public void onLoanOverdue(LoanOverdueEvent event) {
+        becameOverdue.increment();
+        logger.info("Loan {} is overdue, it was due on {}", event.getLoanId(), event.getDueDate());
+    }
+}
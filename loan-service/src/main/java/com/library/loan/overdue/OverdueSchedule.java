@@ -0,0 +1,214 @@
+package com.library.loan.overdue;
+
+import com.library.loan.entity.Loan;
+import com.library.loan.event.LoanClosedEvent;
+import com.library.loan.event.LoanCreatedEvent;
+import com.library.loan.event.LoanOverdueEvent;
+import com.library.loan.repository.LoanRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Ids of the active loans, ordered by due date. Built from the database once at
+ * startup and then kept up to date from loan events, so finding the overdue loans
+ * only touches the due dates that have passed, not every active loan.
+ * <p>
+ * Each check raises a {@link LoanOverdueEvent} for the loans whose due date passed
+ * since the previous check. Loans that were already overdue when the schedule was
+ * loaded are listed as overdue but raise no event.
+ * <p>
+ * The schedule is loaded while the application starts, before the web server takes
+ * requests, so no loan can be created or closed while it is being read.
+ */
+@Component
+public class OverdueSchedule implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueSchedule.class);
+
+    private final LoanRepository loanRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private NavigableMap<LocalDate, Set<Long>> loansByDueDate = new TreeMap<>();
+    // Loans whose close was handled before their creation. Both events are handled after
+    // their transactions commit, in no guaranteed order, so the late creation must not add them.
+    private final Set<Long> closedBeforeCreated = new HashSet<>();
+    private int activeLoans;
+    private LocalDate checkedThrough = LocalDate.now().minusDays(1);
+    private volatile boolean running;
+
+    public OverdueSchedule(LoanRepository loanRepository, ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry) {
+        this.loanRepository = loanRepository;
+        this.eventPublisher = eventPublisher;
+        meterRegistry.gauge("library.loans.active", this, OverdueSchedule::activeCount);
+        meterRegistry.gauge("library.loans.overdue", this, OverdueSchedule::overdueCount);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void start() {
+        reload();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Ahead of the web server, which starts in a late phase
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Replaces the schedule with the active loans in the database, for when loans were
+     * written without going through this service.
+     */
+    @Transactional(readOnly = true)
+    public void reload() {
+        NavigableMap<LocalDate, Set<Long>> loaded = new TreeMap<>();
+        int loans = 0;
+        try (Stream<Object[]> rows = loanRepository.streamActiveIdAndDueDate()) {
+            for (var it = rows.iterator(); it.hasNext(); loans++) {
+                Object[] row = it.next();
+                loaded.computeIfAbsent((LocalDate) row[1], dueDate -> new TreeSet<>()).add((Long) row[0]);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            loansByDueDate = loaded;
+            closedBeforeCreated.clear();
+            activeLoans = loans;
+            checkedThrough = LocalDate.now().minusDays(1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Overdue schedule loaded with {} active loans", loans);
+    }
+
+    @TransactionalEventListener
+    public void onLoanCreated(LoanCreatedEvent event) {
+        Loan loan = event.getLoan();
+        lock.writeLock().lock();
+        try {
+            if (closedBeforeCreated.remove(loan.getId())) {
+                return;
+            }
+            if (loansByDueDate.computeIfAbsent(loan.getDueDate(), dueDate -> new TreeSet<>()).add(loan.getId())) {
+                activeLoans++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onLoanClosed(LoanClosedEvent event) {
+        Loan loan = event.getLoan();
+        lock.writeLock().lock();
+        try {
+            Set<Long> due = loansByDueDate.get(loan.getDueDate());
+            if (due != null && due.remove(loan.getId())) {
+                activeLoans--;
+                if (due.isEmpty()) {
+                    loansByDueDate.remove(loan.getDueDate());
+                }
+            } else {
+                // Only active loans are closed, so this one's creation has not been handled yet
+                closedBeforeCreated.add(loan.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Raises events for the loans whose due date passed since the last check. Does
+     * nothing until the date changes.
+     */
+    @Scheduled(fixedDelayString = "${library.overdue.check-interval:PT1M}")
+    public void check() {
+        LocalDate through = LocalDate.now().minusDays(1);
+        List<LoanOverdueEvent> events = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            if (!through.isAfter(checkedThrough)) {
+                return;
+            }
+            for (Map.Entry<LocalDate, Set<Long>> due : loansByDueDate.subMap(checkedThrough, false, through, true).entrySet()) {
+                for (Long loanId : due.getValue()) {
+                    events.add(new LoanOverdueEvent(loanId, due.getKey()));
+                }
+            }
+            checkedThrough = through;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        events.forEach(eventPublisher::publishEvent);
+        logger.info("{} loans became overdue", events.size());
+    }
+
+    /**
+     * @return ids of the loans due before {@code today}, earliest due date first
+     */
+    public List<Long> overdueLoanIds(LocalDate today) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            loansByDueDate.headMap(today, false).values().forEach(ids::addAll);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int activeCount() {
+        lock.readLock().lock();
+        try {
+            return activeLoans;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int overdueCount() {
+        lock.readLock().lock();
+        try {
+            int overdue = 0;
+            for (Set<Long> due : loansByDueDate.headMap(LocalDate.now(), false).values()) {
+                overdue += due.size();
+            }
+            return overdue;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.library.loan.popularity;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from positive long keys to long counts, without boxing.
+ * Not thread-safe.
+ */
+public final class LongCountMap {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private long[] counts;
+    private int size;
+
+    public LongCountMap() {
+        this(8);
+    }
+
+    public LongCountMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) * 2 - 1);
+        keys = new long[capacity];
+        counts = new long[capacity];
+    }
+
+    public long add(long key, long delta) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        }
+        int slot = slotOf(keys, key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            counts[slot] = delta;
+            if (++size > keys.length * LOAD_FACTOR) {
+                resize();
+            }
+            return delta;
+        }
+        return counts[slot] += delta;
+    }
+
+    public long get(long key) {
+        if (key <= 0) {
+            return 0;
+        }
+        int slot = slotOf(keys, key);
+        return keys[slot] == key ? counts[slot] : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(counts, 0L);
+        size = 0;
+    }
+
+    public void forEach(Entry consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int slotOf(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @FunctionalInterface
+    public interface Entry {
+        void accept(long key, long count);
+    }
+}
@@ -0,0 +1,215 @@
+package com.library.loan.popularity;
+
+import com.library.loan.event.LoanCreatedEvent;
+import com.library.loan.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Borrow counts per book and "borrowed together" counts per pair of books, built
+ * from the loan history once at startup and then updated as loans are created.
+ * Two books count as borrowed together when the same borrower took both; only the
+ * borrower's last {@value #HISTORY_PER_BORROWER} distinct books are paired, which
+ * keeps each update constant time. Histories are kept for the
+ * {@code library.popularity.max-borrowers} most recently active borrowers; a
+ * borrower who comes back after being dropped starts a new history.
+ * <p>
+ * Like the overdue schedule, the index is loaded before the web server takes
+ * requests, so no loan is created while the history is being read.
+ */
+@Component
+public class PopularityIndex implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PopularityIndex.class);
+    private static final int HISTORY_PER_BORROWER = 32;
+
+    private final LoanRepository loanRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongCountMap borrowCounts = new LongCountMap(1024);
+    private final LongObjectMap<LongCountMap> coBorrowCounts = new LongObjectMap<>();
+    private final Map<String, BorrowerHistory> historyByBorrower;
+    private volatile boolean running;
+
+    public PopularityIndex(LoanRepository loanRepository,
+                           @Value("${library.popularity.max-borrowers:50000}") int maxBorrowers) {
+        this.loanRepository = loanRepository;
+        // In access order, so the least recently active borrower is dropped first
+        this.historyByBorrower = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BorrowerHistory> eldest) {
+                return size() > maxBorrowers;
+            }
+        };
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void start() {
+        reload();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Ahead of the web server, which starts in a late phase
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Rebuilds the index from the loan history, for when loans were written to the
+     * database without going through this service. Readers wait until it is done; a
+     * loan created meanwhile may be counted twice.
+     */
+    @Transactional(readOnly = true)
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            borrowCounts.clear();
+            coBorrowCounts.clear();
+            historyByBorrower.clear();
+            load();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        long loans = 0;
+        try (Stream<Object[]> rows = loanRepository.streamBookAndBorrowerOrderById()) {
+            for (var it = rows.iterator(); it.hasNext(); loans++) {
+                Object[] row = it.next();
+                record((Long) row[0], (String) row[1]);
+            }
+        }
+        logger.info("Popularity index loaded from {} loans", loans);
+    }
+
+    @TransactionalEventListener
+    public void onLoanCreated(LoanCreatedEvent event) {
+        record(event.getLoan().getBookId(), event.getLoan().getBorrowerName());
+    }
+
+    public void record(long bookId, String borrowerName) {
+        lock.writeLock().lock();
+        try {
+            borrowCounts.add(bookId, 1);
+            BorrowerHistory history = historyByBorrower.computeIfAbsent(borrowerName, name -> new BorrowerHistory());
+            if (history.contains(bookId)) {
+                return;
+            }
+            LongCountMap pairs = coBorrowCounts.computeIfAbsent(bookId, id -> new LongCountMap());
+            history.forEach(other -> {
+                pairs.add(other, 1);
+                coBorrowCounts.computeIfAbsent(other, id -> new LongCountMap()).add(bookId, 1);
+            });
+            history.add(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return up to {@code limit} books with their loan count, most borrowed first
+     */
+    public List<BookCount> mostBorrowed(int limit) {
+        lock.readLock().lock();
+        try {
+            return topOf(borrowCounts, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return up to {@code limit} books taken by borrowers who also took {@code bookId},
+     *         with the number of such borrowers, strongest first
+     */
+    public List<BookCount> alsoBorrowed(long bookId, int limit) {
+        lock.readLock().lock();
+        try {
+            LongCountMap pairs = coBorrowCounts.get(bookId);
+            return pairs == null ? List.of() : topOf(pairs, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<BookCount> topOf(LongCountMap counts, int limit) {
+        TopK top = new TopK(limit);
+        counts.forEach(top::offer);
+        List<BookCount> result = new ArrayList<>(limit);
+        for (long[] entry : top.drainDescending()) {
+            result.add(new BookCount(entry[0], entry[1]));
+        }
+        return result;
+    }
+
+    public static final class BookCount {
+        private final long bookId;
+        private final long count;
+
+        BookCount(long bookId, long count) {
+            this.bookId = bookId;
+            this.count = count;
+        }
+
+        public long getBookId() { return bookId; }
+
+        public long getCount() { return count; }
+    }
+
+    /**
+     * Ring buffer of a borrower's most recent distinct book ids.
+     */
+    private static final class BorrowerHistory {
+        private final long[] bookIds = new long[HISTORY_PER_BORROWER];
+        private int size;
+        private int next;
+
+        boolean contains(long bookId) {
+            for (int i = 0; i < size; i++) {
+                if (bookIds[i] == bookId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(long bookId) {
+            bookIds[next] = bookId;
+            next = (next + 1) % bookIds.length;
+            size = Math.min(size + 1, bookIds.length);
+        }
+
+        void forEach(LongConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(bookIds[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.library.loan.popularity;
+
+/**
+ * Keeps the k highest counts seen so far in a bounded min-heap of primitive
+ * arrays: O(n log k) over n offers and O(k) memory.
+ */
+final class TopK {
+
+    private final long[] keys;
+    private final long[] counts;
+    private int size;
+
+    TopK(int k) {
+        keys = new long[k];
+        counts = new long[k];
+    }
+
+    void offer(long key, long count) {
+        if (keys.length == 0) {
+            return;
+        }
+        if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = count;
+            siftUp(size++);
+        } else if (isBefore(key, count, 0)) {
+            keys[0] = key;
+            counts[0] = count;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Drains the heap, highest count first (ties broken by lower key).
+     */
+    long[][] drainDescending() {
+        long[][] result = new long[size][];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = new long[] {keys[0], counts[0]};
+            size--;
+            keys[0] = keys[size];
+            counts[0] = counts[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    // True if (key, count) ranks above the heap entry at index, i.e. should stay over it.
+    private boolean isBefore(long key, long count, int index) {
+        return count > counts[index] || (count == counts[index] && key < keys[index]);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBefore(keys[parent], counts[parent], index)) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && isBefore(keys[left], counts[left], right)) {
+                smallest = right;
+            }
+            if (!isBefore(keys[index], counts[index], smallest)) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        long count = counts[a];
+        keys[a] = keys[b];
+        counts[a] = counts[b];
+        keys[b] = key;
+        counts[b] = count;
+    }
+}
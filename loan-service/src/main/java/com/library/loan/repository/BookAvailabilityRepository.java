@@ -0,0 +1,15 @@
+package com.library.loan.repository;
+
+import com.library.loan.entity.BookAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface BookAvailabilityRepository extends JpaRepository<BookAvailability, Long> {
+
+    // Bumps the version so a checkout that read the old count fails and retries.
+    @Modifying
+    @Query("UPDATE BookAvailability a SET a.activeLoans = CASE WHEN a.activeLoans > ?2 THEN a.activeLoans - ?2 ELSE 0 END, "
+            + "a.version = a.version + 1 WHERE a.bookId = ?1")
+    int release(Long bookId, int loans);
+}
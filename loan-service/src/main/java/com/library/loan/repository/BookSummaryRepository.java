@@ -0,0 +1,23 @@
+package com.library.loan.repository;
+
+import com.library.loan.entity.BookSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface BookSummaryRepository extends JpaRepository<BookSummary, Long> {
+    List<BookSummary> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT l.bookId FROM Loan l WHERE l.bookId > ?1 "
+            + "AND NOT EXISTS (SELECT 1 FROM BookSummary s WHERE s.id = l.bookId) ORDER BY l.bookId")
+    List<Long> findLoanedBookIdsWithoutSummary(Long afterBookId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE BookSummary s SET s.title = ?2 WHERE s.id = ?1 AND s.title <> ?2")
+    int updateTitle(Long id, String title);
+}
@@ -1,12 +1,65 @@
 package com.library.loan.repository;
 
+import com.library.loan.dto.LoanWithBookDTO;
 import com.library.loan.entity.Loan;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface LoanRepository extends JpaRepository<Loan, Long> {
     List<Loan> findByBorrowerName(String borrowerName);
     List<Loan> findByReturnedFalse();
     List<Loan> findByBookId(Long bookId);
+
+    @Query("SELECT new com.library.loan.dto.LoanWithBookDTO(l.id, l.bookId, s.title, l.borrowerName, "
+            + "l.loanDate, l.dueDate, l.returnDate, l.returned) FROM Loan l LEFT JOIN BookSummary s ON s.id = l.bookId")
+    List<LoanWithBookDTO> findAllWithBookTitle();
+
+    @Query("SELECT new com.library.loan.dto.LoanWithBookDTO(l.id, l.bookId, s.title, l.borrowerName, "
+            + "l.loanDate, l.dueDate, l.returnDate, l.returned) FROM Loan l LEFT JOIN BookSummary s ON s.id = l.bookId "
+            + "WHERE l.returned = false")
+    List<LoanWithBookDTO> findActiveWithBookTitle();
+
+    @Query("SELECT new com.library.loan.dto.LoanWithBookDTO(l.id, l.bookId, s.title, l.borrowerName, "
+            + "l.loanDate, l.dueDate, l.returnDate, l.returned) FROM Loan l LEFT JOIN BookSummary s ON s.id = l.bookId "
+            + "WHERE l.id IN ?1 AND l.returned = false")
+    List<LoanWithBookDTO> findActiveWithBookTitleByIdIn(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT l.id, l.dueDate FROM Loan l WHERE l.returned = false")
+    Stream<Object[]> streamActiveIdAndDueDate();
+
+    @Query("SELECT l.bookId, COUNT(l) FROM Loan l WHERE l.bookId IN ?1 AND l.returned = false GROUP BY l.bookId")
+    List<Object[]> countActiveByBookIdIn(Collection<Long> bookIds);
+
+    // Ordered so concurrent callers lock overlapping rows in the same order.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Loan l WHERE l.id IN ?1 ORDER BY l.id")
+    List<Loan> findAllByIdForUpdate(Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Loan l SET l.returned = true, l.returnDate = ?2 WHERE l.id IN ?1 AND l.returned = false")
+    int markReturned(Collection<Long> ids, LocalDate returnDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT l.bookId, l.borrowerName FROM Loan l ORDER BY l.id")
+    Stream<Object[]> streamBookAndBorrowerOrderById();
+
+    List<Loan> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    List<Loan> findAllByOrderByDueDateAscIdAsc(Pageable pageable);
+
+    @Query("SELECT l FROM Loan l WHERE l.dueDate > ?1 OR (l.dueDate = ?1 AND l.id > ?2) ORDER BY l.dueDate, l.id")
+    List<Loan> findPageOrderByDueDate(LocalDate afterDueDate, Long afterId, Pageable pageable);
 }
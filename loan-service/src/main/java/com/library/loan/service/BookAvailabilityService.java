@@ -0,0 +1,69 @@
+package com.library.loan.service;
+
+import com.library.loan.entity.BookAvailability;
+import com.library.loan.repository.BookAvailabilityRepository;
+import com.library.loan.repository.LoanRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and releases {@link BookAvailability} rows inside the loan transactions that
+ * change them. The first checkout of a book creates its row from the book's active loans.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class BookAvailabilityService {
+
+    private final BookAvailabilityRepository availabilityRepository;
+    private final LoanRepository loanRepository;
+    private final EntityManager entityManager;
+
+    public BookAvailabilityService(BookAvailabilityRepository availabilityRepository, LoanRepository loanRepository,
+                                   EntityManager entityManager) {
+        this.availabilityRepository = availabilityRepository;
+        this.loanRepository = loanRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @return the availability of each book, creating the rows that do not exist yet
+     */
+    public Map<Long, BookAvailability> forBooks(Collection<Long> bookIds) {
+        Map<Long, BookAvailability> availability = new HashMap<>();
+        availabilityRepository.findAllById(bookIds).forEach(row -> availability.put(row.getBookId(), row));
+        List<Long> missing = new ArrayList<>();
+        for (Long bookId : bookIds) {
+            if (!availability.containsKey(bookId)) {
+                missing.add(bookId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, Long> activeLoans = new HashMap<>();
+            for (Object[] row : loanRepository.countActiveByBookIdIn(missing)) {
+                activeLoans.put((Long) row[0], (Long) row[1]);
+            }
+            for (Long bookId : missing) {
+                // A concurrent first checkout of the same book fails on the primary key and is retried.
+                BookAvailability row = new BookAvailability(bookId, activeLoans.getOrDefault(bookId, 0L).intValue());
+                entityManager.persist(row);
+                availability.put(bookId, row);
+            }
+        }
+        return availability;
+    }
+
+    /**
+     * Gives back the copies of loans that were returned or deleted.
+     */
+    public void release(Map<Long, Integer> loansByBookId) {
+        loansByBookId.forEach(availabilityRepository::release);
+    }
+}
@@ -0,0 +1,152 @@
+package com.library.loan.service;
+
+import com.library.loan.client.BookClient;
+import com.library.loan.dto.BookDTO;
+import com.library.loan.entity.BookSummary;
+import com.library.loan.repository.BookSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the {@link BookSummary} rows loan reads join against. A summary is written
+ * when its book is loaned and updated when book-service announces a change. The
+ * reconciliation job repairs whatever those miss, such as a change published while
+ * loan-service was down, in batches of {@value #BATCH_SIZE}. Summaries of books that
+ * book-service no longer has keep their last title.
+ */
+@Service
+public class BookSummaryProjection {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSummaryProjection.class);
+    private static final int BATCH_SIZE = 500;
+    // No conflict target, which H2 does not take; the id is the table's only unique key.
+    private static final String INSERT_MISSING = "INSERT INTO book_summary (id, title) VALUES (?, ?) ON CONFLICT DO NOTHING";
+    private static final String UPDATE_TITLE = "UPDATE book_summary SET title = ? WHERE id = ? AND title <> ?";
+
+    private final BookSummaryRepository summaryRepository;
+    private final BookClient bookClient;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookSummaryProjection(BookSummaryRepository summaryRepository, BookClient bookClient,
+                                 JdbcTemplate jdbcTemplate) {
+        this.summaryRepository = summaryRepository;
+        this.bookClient = bookClient;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the book of a new loan, in the loan's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(BookDTO book) {
+        recordAll(List.of(book));
+    }
+
+    /**
+     * Records the books of several new loans, in the loans' transaction. Inserts skip
+     * summaries that already exist, including one a concurrent checkout of the same
+     * book has just written, and the update then refreshes their titles.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(Collection<BookDTO> books) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (BookDTO book : books) {
+            inserts.add(new Object[]{book.getId(), book.getTitle()});
+            updates.add(new Object[]{book.getTitle(), book.getId(), book.getTitle()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_MISSING, inserts);
+        jdbcTemplate.batchUpdate(UPDATE_TITLE, updates);
+    }
+
+    /**
+     * Applies a book change; books that were never loaned have no summary and are skipped.
+     */
+    public void update(BookDTO book) {
+        summaryRepository.updateTitle(book.getId(), book.getTitle());
+    }
+
+    @Scheduled(fixedDelayString = "${library.book-summary.reconcile-interval:PT1H}")
+    public void reconcile() {
+        try {
+            int added = backfill();
+            int repaired = repair();
+            if (added > 0 || repaired > 0) {
+                logger.info("Book summaries reconciled: {} added, {} repaired", added, repaired);
+            }
+        } catch (Exception e) {
+            logger.warn("Book summary reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds summaries for loaned books that have none, e.g. loans that predate the projection.
+     */
+    private int backfill() {
+        int added = 0;
+        long after = 0;
+        List<Long> missing;
+        do {
+            missing = summaryRepository.findLoanedBookIdsWithoutSummary(after, PageRequest.ofSize(BATCH_SIZE));
+            if (missing.isEmpty()) {
+                break;
+            }
+            List<Object[]> rows = new ArrayList<>();
+            for (BookDTO book : bookClient.getBooksByIds(missing)) {
+                rows.add(new Object[]{book.getId(), book.getTitle()});
+            }
+            // A concurrent checkout may have added some of them since; rewritten batches
+            // report no row counts, so those count as added.
+            int[] inserted = jdbcTemplate.batchUpdate(INSERT_MISSING, rows);
+            added += (int) Arrays.stream(inserted).filter(count -> count != 0).count();
+            after = missing.get(missing.size() - 1);
+        } while (missing.size() == BATCH_SIZE);
+        return added;
+    }
+
+    /**
+     * Compares every summary with book-service and rewrites the titles that drifted.
+     */
+    private int repair() {
+        int repaired = 0;
+        long after = 0;
+        List<BookSummary> summaries;
+        do {
+            summaries = summaryRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.ofSize(BATCH_SIZE));
+            if (summaries.isEmpty()) {
+                break;
+            }
+            Map<Long, String> titles = bookClient.getBooksByIds(
+                            summaries.stream().map(BookSummary::getId).collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(BookDTO::getId, BookDTO::getTitle, (a, b) -> a));
+            List<Object[]> updates = new ArrayList<>();
+            for (BookSummary summary : summaries) {
+                String title = titles.get(summary.getId());
+                if (title != null && !Objects.equals(title, summary.getTitle())) {
+                    updates.add(new Object[]{title, summary.getId()});
+                }
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE book_summary SET title = ? WHERE id = ?", updates);
+                repaired += updates.size();
+            }
+            after = summaries.get(summaries.size() - 1).getId();
+        } while (summaries.size() == BATCH_SIZE);
+        return repaired;
+    }
+}
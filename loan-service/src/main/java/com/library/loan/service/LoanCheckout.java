@@ -0,0 +1,55 @@
+package com.library.loan.service;
+
+import com.library.loan.dto.LoanBatchResult;
+import com.library.loan.entity.Loan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs checkouts in their own transactions and retries the ones that lost a race for
+ * a book's availability, up to {@code library.checkout.max-attempts} times. Each retry
+ * re-reads the availability, so a checkout that lost the last copy then fails as unavailable.
+ */
+@Service
+public class LoanCheckout {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanCheckout.class);
+
+    private final LoanService loanService;
+    private final int maxAttempts;
+
+    public LoanCheckout(LoanService loanService, @Value("${library.checkout.max-attempts:5}") int maxAttempts) {
+        this.loanService = loanService;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Loan createLoan(Loan loan) {
+        return withRetry(() -> loanService.createLoan(loan));
+    }
+
+    public List<LoanBatchResult> createLoans(List<Loan> loans) {
+        return withRetry(() -> loanService.createLoans(loans));
+    }
+
+    private <T> T withRetry(Supplier<T> checkout) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return checkout.get();
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                // The integrity violation is two first checkouts of a book creating its availability row.
+                if (attempt >= maxAttempts) {
+                    throw new ConcurrencyFailureException(
+                            "Checkout conflicted with concurrent checkouts " + attempt + " times; try again", e);
+                }
+                logger.debug("Checkout conflicted on attempt {}: {}", attempt, e.getMessage());
+            }
+        }
+    }
+}
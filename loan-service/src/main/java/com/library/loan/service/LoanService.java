@@ -1,35 +1,100 @@
 package com.library.loan.service;
 
-import com.library.loan.client.BookClient;
+import com.library.loan.client.BookCache;
 import com.library.loan.dto.BookDTO;
+import com.library.loan.dto.CursorPage;
+import com.library.loan.dto.KeysetCursor;
+import com.library.loan.dto.LoanBatchResult;
 import com.library.loan.dto.LoanWithBookDTO;
+import com.library.loan.entity.BookAvailability;
+import com.library.loan.entity.BookSummary;
 import com.library.loan.entity.Loan;
+import com.library.loan.event.LoanClosedEvent;
+import com.library.loan.event.LoanCreatedEvent;
+import com.library.loan.exception.BookUnavailableException;
+import com.library.loan.overdue.OverdueSchedule;
+import com.library.loan.repository.BookSummaryRepository;
 import com.library.loan.repository.LoanRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class LoanService {
 
+    private static final int ID_BATCH_SIZE = 1000;
+
     private final LoanRepository loanRepository;
-    private final BookClient bookClient;
+    private final BookSummaryRepository summaryRepository;
+    private final BookSummaryProjection bookSummaries;
+    private final BookAvailabilityService bookAvailability;
+    private final BookCache bookCache;
+    private final OverdueSchedule overdueSchedule;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public LoanService(LoanRepository loanRepository, BookClient bookClient) {
+    public LoanService(LoanRepository loanRepository, BookSummaryRepository summaryRepository,
+                       BookSummaryProjection bookSummaries, BookAvailabilityService bookAvailability,
+                       BookCache bookCache, OverdueSchedule overdueSchedule,
+                       ApplicationEventPublisher eventPublisher) {
         this.loanRepository = loanRepository;
-        this.bookClient = bookClient;
+        this.summaryRepository = summaryRepository;
+        this.bookSummaries = bookSummaries;
+        this.bookAvailability = bookAvailability;
+        this.bookCache = bookCache;
+        this.overdueSchedule = overdueSchedule;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
     public List<LoanWithBookDTO> getAllLoans() {
-        return loanRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return loanRepository.findAllWithBookTitle();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<LoanWithBookDTO> getLoansPage(int limit, String after, String sort) {
+        Pageable fetch = PageRequest.ofSize(limit + 1);
+        CursorPage<Loan> page;
+        switch (sort) {
+            case "id": {
+                Long afterId = after != null ? KeysetCursor.decodeId(after) : 0L;
+                page = CursorPage.of(loanRepository.findByIdGreaterThanOrderByIdAsc(afterId, fetch), limit,
+                        loan -> String.valueOf(loan.getId()));
+                break;
+            }
+            case "dueDate": {
+                List<Loan> rows;
+                if (after == null) {
+                    rows = loanRepository.findAllByOrderByDueDateAscIdAsc(fetch);
+                } else {
+                    KeysetCursor cursor = KeysetCursor.decode(after);
+                    rows = loanRepository.findPageOrderByDueDate(parseDate(cursor.getKey()), cursor.getId(), fetch);
+                }
+                page = CursorPage.of(rows, limit,
+                        loan -> new KeysetCursor(loan.getDueDate().toString(), loan.getId()).encode());
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+        return new CursorPage<>(convertToDTOs(page.getItems()), page.getNextCursor());
     }
 
     @Transactional(readOnly = true)
@@ -39,42 +104,179 @@ public class LoanService {
 
     @Transactional(readOnly = true)
     public List<LoanWithBookDTO> getActiveLoans() {
-        return loanRepository.findByReturnedFalse().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return loanRepository.findActiveWithBookTitle();
+    }
+
+    /**
+     * Active loans past their due date, earliest due date first. The ids come from the
+     * {@link OverdueSchedule}, so only overdue loans are read.
+     */
+    @Transactional(readOnly = true)
+    public List<LoanWithBookDTO> getOverdueLoans() {
+        List<Long> ids = overdueSchedule.overdueLoanIds(LocalDate.now());
+        List<LoanWithBookDTO> overdue = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()));
+            Map<Long, LoanWithBookDTO> found = loanRepository.findActiveWithBookTitleByIdIn(batch).stream()
+                    .collect(Collectors.toMap(LoanWithBookDTO::getId, Function.identity()));
+            for (Long id : batch) {
+                LoanWithBookDTO loan = found.get(id);
+                if (loan != null) {
+                    overdue.add(loan);
+                }
+            }
+        }
+        return overdue;
     }
 
+    /**
+     * Checks out a book if one of its copies is free. Concurrent checkouts of the same
+     * book conflict at commit; {@link LoanCheckout} retries them.
+     *
+     * @return the loan, or {@code null} if the book does not exist
+     * @throws BookUnavailableException if every copy is on loan
+     */
     public Loan createLoan(Loan loan) {
+        BookDTO book;
         try {
-            BookDTO book = bookClient.getBookById(loan.getBookId());
+            book = bookCache.get(loan.getBookId());
             if (book == null) {
                 return null;
             }
-        } catch (feign.FeignException.NotFound e) {
-            return null;
         } catch (Exception e) {
             throw new RuntimeException("Failed to verify book: " + e.getMessage(), e);
         }
-        
+
+        BookAvailability availability = bookAvailability.forBooks(List.of(book.getId())).get(book.getId());
+        if (!availability.reserve(book.getCopies())) {
+            throw new BookUnavailableException(book.getId());
+        }
+        bookSummaries.record(book);
+        loan.setId(null);
         loan.setLoanDate(LocalDate.now());
         loan.setDueDate(loan.getLoanDate().plusDays(14));
         loan.setReturned(false);
-        return loanRepository.save(loan);
+        Loan saved = loanRepository.save(loan);
+        eventPublisher.publishEvent(new LoanCreatedEvent(saved));
+        return saved;
+    }
+
+    /**
+     * Checks out several books at once. All books are verified with one bulk lookup and
+     * the loans are inserted in JDBC batches. Items that are invalid, name an unknown
+     * book or find no free copy are reported and skipped; the rest are created together.
+     */
+    public List<LoanBatchResult> createLoans(List<Loan> loans) {
+        Map<Long, BookDTO> books = bookCache.getAll(loans.stream()
+                .map(Loan::getBookId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        Map<Long, BookAvailability> availability = bookAvailability.forBooks(books.keySet());
+        LoanBatchResult[] results = new LoanBatchResult[loans.size()];
+        List<Loan> accepted = new ArrayList<>();
+        Map<Long, BookDTO> loanedBooks = new HashMap<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < loans.size(); i++) {
+            Loan loan = loans.get(i);
+            if (loan.getBookId() == null || loan.getBorrowerName() == null || loan.getBorrowerName().isBlank()) {
+                results[i] = new LoanBatchResult(i, null, LoanBatchResult.Status.INVALID,
+                        "Book ID and borrower name are required");
+                continue;
+            }
+            BookDTO book = books.get(loan.getBookId());
+            if (book == null) {
+                results[i] = new LoanBatchResult(i, null, LoanBatchResult.Status.BOOK_NOT_FOUND,
+                        "Book not found or unavailable");
+                continue;
+            }
+            if (!availability.get(book.getId()).reserve(book.getCopies())) {
+                results[i] = new LoanBatchResult(i, null, LoanBatchResult.Status.UNAVAILABLE,
+                        "No copy of the book is available");
+                continue;
+            }
+            loan.setId(null);
+            loan.setLoanDate(today);
+            loan.setDueDate(today.plusDays(14));
+            loan.setReturnDate(null);
+            loan.setReturned(false);
+            accepted.add(loan);
+            loanedBooks.put(book.getId(), book);
+        }
+        loanRepository.saveAll(accepted);
+        bookSummaries.recordAll(loanedBooks.values());
+        for (int i = 0; i < loans.size(); i++) {
+            if (results[i] == null) {
+                Loan saved = loans.get(i);
+                eventPublisher.publishEvent(new LoanCreatedEvent(saved));
+                results[i] = new LoanBatchResult(i, saved.getId(), LoanBatchResult.Status.CREATED, null);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Returns several loans with one locking read and one set-based UPDATE.
+     */
+    public List<LoanBatchResult> returnLoans(List<Long> ids) {
+        Map<Long, Loan> found = loanRepository.findAllByIdForUpdate(new LinkedHashSet<>(ids)).stream()
+                .collect(Collectors.toMap(Loan::getId, Function.identity()));
+        Set<Long> returning = new LinkedHashSet<>();
+        List<LoanBatchResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            Loan loan = found.get(id);
+            if (loan == null) {
+                results.add(new LoanBatchResult(i, id, LoanBatchResult.Status.NOT_FOUND, "Loan not found"));
+            } else if (loan.isReturned() || !returning.add(id)) {
+                results.add(new LoanBatchResult(i, id, LoanBatchResult.Status.ALREADY_RETURNED, "Loan already returned"));
+            } else {
+                results.add(new LoanBatchResult(i, id, LoanBatchResult.Status.RETURNED, null));
+            }
+        }
+        if (!returning.isEmpty()) {
+            loanRepository.markReturned(returning, LocalDate.now());
+            // Sorted so concurrent bulk returns update availability rows in the same order.
+            Map<Long, Integer> released = new TreeMap<>();
+            returning.forEach(id -> released.merge(found.get(id).getBookId(), 1, Integer::sum));
+            bookAvailability.release(released);
+            returning.forEach(id -> eventPublisher.publishEvent(new LoanClosedEvent(found.get(id))));
+        }
+        return results;
     }
 
+    /**
+     * Returns a loan. The loan is read with a row lock, so of two concurrent returns only
+     * the first gives its copy back; the second finds the loan returned and leaves it as is.
+     */
     public Optional<Loan> returnBook(Long id) {
-        return loanRepository.findById(id)
+        return findForUpdate(id)
                 .map(loan -> {
+                    if (loan.isReturned()) {
+                        return loan;
+                    }
+                    bookAvailability.release(Map.of(loan.getBookId(), 1));
                     loan.setReturned(true);
                     loan.setReturnDate(LocalDate.now());
+                    eventPublisher.publishEvent(new LoanClosedEvent(loan));
                     return loanRepository.save(loan);
                 });
     }
 
+    /**
+     * Deletes a loan, giving its copy back if it was still out. Locks the loan like
+     * {@link #returnBook}.
+     */
     public boolean deleteLoan(Long id) {
-        return loanRepository.findById(id)
+        return findForUpdate(id)
                 .map(loan -> {
+                    if (!loan.isReturned()) {
+                        bookAvailability.release(Map.of(loan.getBookId(), 1));
+                    }
                     loanRepository.delete(loan);
+                    // A returned loan was already closed
+                    if (!loan.isReturned()) {
+                        eventPublisher.publishEvent(new LoanClosedEvent(loan));
+                    }
                     return true;
                 })
                 .orElse(false);
@@ -85,12 +287,32 @@ public class LoanService {
         return loanRepository.findByBorrowerName(borrowerName);
     }
 
-    private LoanWithBookDTO convertToDTO(Loan loan) {
-        BookDTO book = null;
+    private Optional<Loan> findForUpdate(Long id) {
+        return loanRepository.findAllByIdForUpdate(List.of(id)).stream().findFirst();
+    }
+
+    private static LocalDate parseDate(String value) {
         try {
-            book = bookClient.getBookById(loan.getBookId());
-        } catch (Exception e) {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor date: " + value);
         }
-        return new LoanWithBookDTO(loan, book);
+    }
+
+    private LoanWithBookDTO convertToDTO(Loan loan) {
+        return new LoanWithBookDTO(loan, summaryRepository.findById(loan.getBookId())
+                .map(BookSummary::getTitle)
+                .orElse(null));
+    }
+
+    private List<LoanWithBookDTO> convertToDTOs(List<Loan> loans) {
+        Map<Long, String> titles = summaryRepository.findAllById(loans.stream()
+                        .map(Loan::getBookId)
+                        .collect(Collectors.toCollection(LinkedHashSet::new)))
+                .stream()
+                .collect(Collectors.toMap(BookSummary::getId, BookSummary::getTitle));
+        return loans.stream()
+                .map(loan -> new LoanWithBookDTO(loan, titles.get(loan.getBookId())))
+                .collect(Collectors.toList());
     }
 }
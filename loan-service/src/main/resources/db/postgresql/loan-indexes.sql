@@ -0,0 +1,35 @@
+-- Runs after Hibernate has created or updated the tables (spring.jpa.defer-datasource-initialization).
+-- Every statement must be idempotent because the script runs on each startup.
+-- Indexes are built CONCURRENTLY so a build on a large table does not block writes. That needs
+-- autocommit, which is how Spring runs init scripts. A build that is interrupted leaves an
+-- INVALID index that IF NOT EXISTS would then skip forever, so the block below first drops the
+-- invalid indexes of this script that no other session is still building.
+--
+-- These are init scripts rather than Flyway migrations because Hibernate (ddl-auto: update) owns
+-- the tables of every service, and book- and loan-service share one database. A migration tool
+-- would need a baseline of all of those tables and every service moved off ddl-auto at once.
+
+DO '
+DECLARE
+    invalid regclass;
+BEGIN
+    FOR invalid IN
+        SELECT i.indexrelid::regclass FROM pg_index i
+        WHERE i.indrelid IN (''loans''::regclass) AND NOT i.indisvalid
+          AND i.indexrelid::regclass::text IN (''idx_loans_active_due_date'', ''idx_loans_borrower_name'', ''idx_loans_book_id'', ''idx_loans_due_date'')
+          AND NOT EXISTS (SELECT 1 FROM pg_stat_progress_create_index p WHERE p.index_relid = i.indexrelid)
+    LOOP
+        EXECUTE format(''DROP INDEX %s'', invalid);
+    END LOOP;
+END';
+
+-- Active loans. The partial index only holds loans that are out, so its size follows the number of
+-- active loans rather than the length of the history; due date order serves overdue checks.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_active_due_date ON loans (due_date, id) WHERE returned = false;
+
+-- Loans of a borrower or of a book; the second column narrows either to the active ones.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_borrower_name ON loans (borrower_name, returned);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_book_id ON loans (book_id, returned);
+
+-- Keyset pages sorted by due date.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loans_due_date ON loans (due_date, id);
@@ -0,0 +1,4 @@
+-- Loans used to get ids from an identity column. Move loans_seq past the highest
+-- existing id so the blocks it hands out never collide with those rows.
+SELECT setval('loans_seq', (SELECT MAX(id) FROM loans))
+WHERE (SELECT MAX(id) FROM loans) >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM loans_seq);
@@ -0,0 +1,72 @@
+package com.library.loan.diagnostics;
+
+import com.library.loan.client.BookClient;
+import com.library.loan.dto.BookDTO;
+import com.library.loan.entity.Loan;
+import com.library.loan.service.LoanCheckout;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the cost headers of loan listings, which must not grow with the number of loans.
+ */
+@SpringBootTest(properties = "library.request-cost.headers=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestCostTest {
+
+    @MockBean
+    private BookClient bookClient;
+
+    @Autowired
+    private LoanCheckout loanCheckout;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void listingLoansTakesOneQueryAndNoRemoteCalls() throws Exception {
+        for (long bookId = 3001; bookId <= 3005; bookId++) {
+            loanCheckout.createLoan(loan(book(bookId)));
+        }
+        clearInvocations(bookClient);
+
+        mockMvc.perform(get("/api/loans"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.bookId == 3005)].bookTitle").value("Book 3005"))
+                .andExpect(header().string("X-Query-Count", "1"))
+                .andExpect(header().string("X-Remote-Call-Count", "0"));
+
+        // The client is mocked, so make sure the listing did not reach it either.
+        verifyNoInteractions(bookClient);
+    }
+
+    private long book(long id) {
+        BookDTO book = new BookDTO();
+        book.setId(id);
+        book.setTitle("Book " + id);
+        book.setCopies(1);
+        given(bookClient.getBookById(id)).willReturn(book);
+        return id;
+    }
+
+    private static Loan loan(long bookId) {
+        Loan loan = new Loan();
+        loan.setBookId(bookId);
+        loan.setBorrowerName("Borrower");
+        return loan;
+    }
+}
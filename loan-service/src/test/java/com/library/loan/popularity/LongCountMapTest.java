@@ -0,0 +1,58 @@
+package com.library.loan.popularity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Counts survive resizing, each key is visited once and clearing empties the map.
+ */
+class LongCountMapTest {
+
+    @Test
+    void addsToExistingCounts() {
+        LongCountMap counts = new LongCountMap();
+        assertThat(counts.add(42, 1)).isEqualTo(1);
+        assertThat(counts.add(42, 2)).isEqualTo(3);
+        assertThat(counts.get(42)).isEqualTo(3);
+        assertThat(counts.get(43)).isZero();
+        assertThat(counts.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsEveryKeyOnceAcrossResizes() {
+        LongCountMap counts = new LongCountMap(2);
+        for (long key = 1; key <= 5000; key++) {
+            counts.add(key, key);
+            counts.add(key, 1);
+        }
+
+        Map<Long, Long> visited = new HashMap<>();
+        counts.forEach((key, count) -> assertThat(visited.put(key, count)).isNull());
+        assertThat(counts.size()).isEqualTo(5000);
+        assertThat(visited).hasSize(5000);
+        assertThat(visited).allSatisfy((key, count) -> assertThat(count).isEqualTo(key + 1));
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongCountMap counts = new LongCountMap();
+        counts.add(1, 1);
+        counts.add(2, 1);
+        counts.clear();
+
+        assertThat(counts.size()).isZero();
+        assertThat(counts.get(1)).isZero();
+        counts.forEach((key, count) -> { throw new AssertionError("visited " + key); });
+        assertThat(counts.add(1, 5)).isEqualTo(5);
+    }
+
+    @Test
+    void rejectsNonPositiveKeys() {
+        assertThatThrownBy(() -> new LongCountMap().add(0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,69 @@
+package com.library.loan.popularity;
+
+import com.library.loan.popularity.PopularityIndex.BookCount;
+import com.library.loan.repository.LoanRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rankings list each book once, strongest first, and a reload replaces the counts instead of adding to them.
+ */
+class PopularityIndexTest {
+
+    private final LoanRepository loanRepository = mock(LoanRepository.class);
+    private final PopularityIndex index = new PopularityIndex(loanRepository, 100);
+
+    @Test
+    void ranksMostBorrowedBooksOnce() {
+        index.record(1, "ann");
+        index.record(1, "ann");
+        index.record(1, "bob");
+        index.record(2, "bob");
+        index.record(2, "cid");
+        index.record(3, "cid");
+
+        assertThat(books(index.mostBorrowed(10))).containsExactly(1L, 2L, 3L);
+        assertThat(index.mostBorrowed(10).get(0).getCount()).isEqualTo(3);
+        assertThat(books(index.mostBorrowed(2))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void pairsEachBorrowerOnlyOnce() {
+        // ann borrows book 1 twice; the second loan must not pair 1 with 2 again
+        index.record(1, "ann");
+        index.record(2, "ann");
+        index.record(1, "ann");
+        index.record(1, "bob");
+        index.record(2, "bob");
+        index.record(1, "cid");
+        index.record(3, "cid");
+
+        List<BookCount> together = index.alsoBorrowed(1, 10);
+        assertThat(books(together)).containsExactly(2L, 3L);
+        assertThat(together.get(0).getCount()).isEqualTo(2);
+        assertThat(together.get(1).getCount()).isEqualTo(1);
+        assertThat(index.alsoBorrowed(4, 10)).isEmpty();
+    }
+
+    @Test
+    void reloadDoesNotDoubleCount() {
+        when(loanRepository.streamBookAndBorrowerOrderById()).thenAnswer(invocation -> Stream.of(
+                new Object[] {1L, "ann"}, new Object[] {2L, "ann"}, new Object[] {1L, "bob"}));
+
+        index.reload();
+        index.reload();
+
+        assertThat(index.mostBorrowed(10)).extracting(BookCount::getCount).containsExactly(2L, 1L);
+        assertThat(index.alsoBorrowed(1, 10)).extracting(BookCount::getCount).containsExactly(1L);
+    }
+
+    private static List<Long> books(List<BookCount> counts) {
+        return counts.stream().map(BookCount::getBookId).toList();
+    }
+}
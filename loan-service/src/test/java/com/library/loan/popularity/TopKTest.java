@@ -0,0 +1,62 @@
+package com.library.loan.popularity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The heap keeps the k highest counts and drains them highest first, ties by lower key.
+ */
+class TopKTest {
+
+    @Test
+    void keepsTheHighestCountsInDescendingOrder() {
+        TopK top = new TopK(3);
+        top.offer(1, 5);
+        top.offer(2, 9);
+        top.offer(3, 1);
+        top.offer(4, 7);
+        top.offer(5, 8);
+
+        assertThat(top.drainDescending()).containsExactly(
+                new long[] {2, 9}, new long[] {5, 8}, new long[] {4, 7});
+    }
+
+    @Test
+    void breaksTiesByLowerKey() {
+        TopK top = new TopK(2);
+        top.offer(30, 4);
+        top.offer(10, 4);
+        top.offer(20, 4);
+
+        assertThat(top.drainDescending()).containsExactly(new long[] {10, 4}, new long[] {20, 4});
+    }
+
+    @Test
+    void returnsFewerThanKWhenFewerWereOffered() {
+        TopK top = new TopK(5);
+        top.offer(7, 1);
+        top.offer(8, 2);
+
+        assertThat(top.drainDescending()).containsExactly(new long[] {8, 2}, new long[] {7, 1});
+        assertThat(new TopK(0).drainDescending()).isEmpty();
+    }
+
+    @Test
+    void matchesAFullSortOnRandomCounts() {
+        SplittableRandom random = new SplittableRandom(17);
+        long[][] offered = new long[1000][];
+        TopK top = new TopK(25);
+        for (int key = 1; key <= offered.length; key++) {
+            long count = random.nextLong(50);
+            offered[key - 1] = new long[] {key, count};
+            top.offer(key, count);
+        }
+        Arrays.sort(offered, (a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+
+        assertThat(top.drainDescending()).containsExactly(Arrays.copyOf(offered, 25));
+    }
+}
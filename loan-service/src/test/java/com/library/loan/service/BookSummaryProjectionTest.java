@@ -0,0 +1,62 @@
+package com.library.loan.service;
+
+import com.library.loan.client.BookClient;
+import com.library.loan.dto.BookDTO;
+import com.library.loan.entity.BookSummary;
+import com.library.loan.repository.BookSummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recording a book that already has a summary updates it instead of failing the loan.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookSummaryProjectionTest {
+
+    @MockBean
+    private BookClient bookClient;
+
+    @Autowired
+    private BookSummaryProjection projection;
+
+    @Autowired
+    private BookSummaryRepository summaryRepository;
+
+    @Autowired
+    private TransactionTemplate transactions;
+
+    @Test
+    void recordingAnExistingSummaryUpdatesItsTitle() {
+        transactions.executeWithoutResult(status -> projection.record(book(2001, "First title")));
+        transactions.executeWithoutResult(status -> projection.record(book(2001, "Second title")));
+
+        assertThat(summaryRepository.findById(2001L)).map(BookSummary::getTitle).contains("Second title");
+    }
+
+    @Test
+    void recordingDuplicatesInOneBatchKeepsOneSummary() {
+        transactions.executeWithoutResult(status -> projection.record(book(2002, "Old title")));
+        transactions.executeWithoutResult(status -> projection.recordAll(List.of(
+                book(2002, "New title"), book(2003, "Other"), book(2003, "Other"))));
+
+        assertThat(summaryRepository.findAllById(List.of(2002L, 2003L)))
+                .extracting(BookSummary::getTitle)
+                .containsExactlyInAnyOrder("New title", "Other");
+    }
+
+    private static BookDTO book(long id, String title) {
+        BookDTO book = new BookDTO();
+        book.setId(id);
+        book.setTitle(title);
+        return book;
+    }
+}
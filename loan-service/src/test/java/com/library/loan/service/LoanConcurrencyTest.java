@@ -0,0 +1,198 @@
+package com.library.loan.service;
+
+import com.library.loan.client.BookClient;
+import com.library.loan.dto.BookDTO;
+import com.library.loan.entity.Loan;
+import com.library.loan.exception.BookUnavailableException;
+import com.library.loan.repository.BookAvailabilityRepository;
+import com.library.loan.repository.LoanRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Races checkouts and returns of one book and checks that its active loans never exceed
+ * its copies and always match the loans that are actually out.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LoanConcurrencyTest {
+
+    private static final AtomicLong nextBookId = new AtomicLong(1000);
+
+    @MockBean
+    private BookClient bookClient;
+
+    @Autowired
+    private LoanCheckout loanCheckout;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private TransactionTemplate transactions;
+
+    @Test
+    void concurrentCheckoutsTakeNoMoreThanTheCopies() throws Exception {
+        long bookId = book(3);
+
+        List<Callable<Loan>> checkouts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            checkouts.add(() -> loanCheckout.createLoan(loan(bookId)));
+        }
+        List<Loan> created = succeeded(race(checkouts));
+
+        assertThat(created).hasSize(3);
+        assertThat(activeLoans(bookId)).isEqualTo(3).isEqualTo(activeLoanRows(bookId));
+    }
+
+    @Test
+    void concurrentReturnsOfOneLoanGiveBackOneCopy() throws Exception {
+        long bookId = book(2);
+        Loan returned = loanCheckout.createLoan(loan(bookId));
+        loanCheckout.createLoan(loan(bookId));
+
+        // The first return stays uncommitted until the second one has had time to read the loan.
+        CountDownLatch firstReturned = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        List<Callable<Loan>> returns = List.of(
+                () -> transactions.execute(status -> {
+                    Loan loan = loanService.returnBook(returned.getId()).orElseThrow();
+                    firstReturned.countDown();
+                    await(secondStarted);
+                    pause();
+                    return loan;
+                }),
+                () -> {
+                    await(firstReturned);
+                    secondStarted.countDown();
+                    return loanService.returnBook(returned.getId()).orElseThrow();
+                });
+        assertThat(succeeded(race(returns))).hasSize(2).allMatch(Loan::isReturned);
+
+        assertThat(activeLoans(bookId)).isEqualTo(1).isEqualTo(activeLoanRows(bookId));
+        loanCheckout.createLoan(loan(bookId));
+        assertThatThrownBy(() -> loanCheckout.createLoan(loan(bookId))).isInstanceOf(BookUnavailableException.class);
+    }
+
+    @Test
+    void returnsAndDeletesRacingCheckoutsKeepTheCountExact() throws Exception {
+        int copies = 3;
+        long bookId = book(copies);
+        List<Loan> out = new ArrayList<>();
+        for (int i = 0; i < copies; i++) {
+            out.add(loanCheckout.createLoan(loan(bookId)));
+        }
+
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (Loan loan : out) {
+            tasks.add(() -> loanService.returnBook(loan.getId()));
+            tasks.add(() -> loanService.returnBook(loan.getId()));
+            tasks.add(() -> loanService.deleteLoan(loan.getId()));
+        }
+        for (int i = 0; i < 6; i++) {
+            tasks.add(() -> loanCheckout.createLoan(loan(bookId)));
+        }
+        succeeded(race(tasks));
+
+        assertThat(activeLoans(bookId)).isLessThanOrEqualTo(copies).isEqualTo(activeLoanRows(bookId));
+    }
+
+    private long book(int copies) {
+        long id = nextBookId.incrementAndGet();
+        BookDTO book = new BookDTO();
+        book.setId(id);
+        book.setTitle("Book " + id);
+        book.setCopies(copies);
+        given(bookClient.getBookById(id)).willReturn(book);
+        return id;
+    }
+
+    private static Loan loan(long bookId) {
+        Loan loan = new Loan();
+        loan.setBookId(bookId);
+        loan.setBorrowerName("Borrower");
+        return loan;
+    }
+
+    private int activeLoans(long bookId) {
+        return availabilityRepository.findById(bookId).orElseThrow().getActiveLoans();
+    }
+
+    private int activeLoanRows(long bookId) {
+        return loanRepository.countActiveByBookIdIn(List.of(bookId)).stream()
+                .mapToInt(row -> ((Long) row[1]).intValue())
+                .sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(300);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Starts every task at once and waits for all of them.
+     */
+    private static <T> List<Future<T>> race(List<Callable<T>> tasks) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> results = new ArrayList<>();
+        for (Callable<T> task : tasks) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        return results;
+    }
+
+    private static <T> List<T> succeeded(List<Future<T>> results) throws InterruptedException {
+        List<T> values = new ArrayList<>();
+        for (Future<T> result : results) {
+            try {
+                values.add(result.get());
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(BookUnavailableException.class);
+            }
+        }
+        return values;
+    }
+}
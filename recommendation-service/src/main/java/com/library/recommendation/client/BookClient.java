@@ -1,9 +1,14 @@
 package com.library.recommendation.client;
 
 import com.library.recommendation.dto.BookDTO;
+import com.library.recommendation.dto.ChangeBatch;
+import com.library.recommendation.dto.CursorPage;
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @FeignClient(name = "book-service", url = "${BOOK_SERVICE_URL:http://localhost:8081}")
@@ -11,4 +16,30 @@ public interface BookClient {
 
     @GetMapping("/api/books")
     List<BookDTO> getAllBooks();
+
+    @GetMapping("/api/books")
+    CursorPage<BookDTO> getBooksPage(@RequestParam("limit") int limit,
+                                     @RequestParam(value = "after", required = false) String after);
+
+    /**
+     * Long-polls the catalog change feed. {@code options} carries a read timeout longer
+     * than {@code waitSeconds}.
+     */
+    @GetMapping("/api/books/changes")
+    ChangeBatch getChanges(@RequestParam("since") long since, @RequestParam("limit") int limit,
+                           @RequestParam("wait") long waitSeconds, Request.Options options);
+
+    /**
+     * Walks the whole catalog page by page instead of pulling it in one response.
+     */
+    default List<BookDTO> getAllBooksByPage(int pageSize) {
+        List<BookDTO> books = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<BookDTO> page = getBooksPage(pageSize, after);
+            books.addAll(page.getItems());
+            after = page.getNextCursor();
+        } while (after != null);
+        return books;
+    }
 }
@@ -0,0 +1,17 @@
+package com.library.recommendation.client;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Feign GET method whose last successful response may be served again when a later
+ * call fails, times out, is rejected by its circuit breaker or bulkhead, or gets a 5xx.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LastKnownGood {
+}
@@ -0,0 +1,98 @@
+package com.library.recommendation.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The last successful response of each {@link LastKnownGood} method, by URL. Bounded by
+ * total body size and kept for {@code library.feign.last-known-good.retention}.
+ */
+@Component
+public class LastKnownGoodResponses {
+
+    private final Cache<String, Snapshot> responses;
+    private final long maxEntrySize;
+
+    public LastKnownGoodResponses(@Value("${library.feign.last-known-good.max-size:32MB}") DataSize maxSize,
+                                  @Value("${library.feign.last-known-good.max-entry-size:1MB}") DataSize maxEntrySize,
+                                  @Value("${library.feign.last-known-good.retention:24h}") Duration retention) {
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<String, Snapshot>weigher((url, snapshot) -> url.length() + snapshot.body.length)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    /**
+     * Remembers a successful response if the request is eligible.
+     *
+     * @return the response, with its body buffered if it was remembered
+     */
+    Response record(Request request, Response response) throws IOException {
+        if (!eligible(request) || response.status() / 100 != 2 || response.body() == null) {
+            return response;
+        }
+        byte[] body;
+        try (InputStream in = response.body().asInputStream()) {
+            body = Util.toByteArray(in);
+        }
+        if (body.length <= maxEntrySize) {
+            responses.put(request.url(), new Snapshot(response.status(), response.reason(), response.headers(), body));
+        }
+        return response.toBuilder().body(body).build();
+    }
+
+    /**
+     * @return the last successful response to the same URL, or {@code null}
+     */
+    Response lookup(Request request) {
+        if (!eligible(request)) {
+            return null;
+        }
+        Snapshot snapshot = responses.getIfPresent(request.url());
+        if (snapshot == null) {
+            return null;
+        }
+        return Response.builder()
+                .request(request)
+                .status(snapshot.status)
+                .reason(snapshot.reason)
+                .headers(snapshot.headers)
+                .body(snapshot.body)
+                .build();
+    }
+
+    private static boolean eligible(Request request) {
+        return request.httpMethod() == Request.HttpMethod.GET
+                && request.requestTemplate() != null
+                && request.requestTemplate().methodMetadata() != null
+                && request.requestTemplate().methodMetadata().method().isAnnotationPresent(LastKnownGood.class);
+    }
+
+    private static final class Snapshot {
+        private final int status;
+        private final String reason;
+        private final Map<String, Collection<String>> headers;
+        private final byte[] body;
+
+        Snapshot(int status, String reason, Map<String, Collection<String>> headers, byte[] body) {
+            this.status = status;
+            this.reason = reason;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.library.recommendation.client;
+
+import com.library.recommendation.dto.BookPopularityDTO;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@FeignClient(name = "loan-service", url = "${LOAN_SERVICE_URL:http://localhost:8082}")
+public interface LoanClient {
+
+    @LastKnownGood
+    @GetMapping("/api/loans/popular")
+    List<BookPopularityDTO> getMostBorrowed(@RequestParam("limit") int limit);
+
+    @LastKnownGood
+    @GetMapping("/api/loans/popular/{bookId}/also-borrowed")
+    List<BookPopularityDTO> getAlsoBorrowed(@PathVariable("bookId") Long bookId, @RequestParam("limit") int limit);
+}
@@ -4,10 +4,14 @@ import com.library.recommendation.dto.BookDTO;
 import com.library.recommendation.service.RecommendationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -16,16 +20,26 @@ public class RecommendationController {
 
     private static final Logger logger = LoggerFactory.getLogger(RecommendationController.class);
     private final RecommendationService recommendationService;
+    // Shared caches such as the gateway may reuse a response this long; browsers ask again.
+    private final CacheControl sharedCacheControl;
 
-    public RecommendationController(RecommendationService recommendationService) {
+    public RecommendationController(RecommendationService recommendationService,
+                                    @Value("${library.recommendations.shared-max-age:10s}") Duration sharedMaxAge) {
         this.recommendationService = recommendationService;
+        this.sharedCacheControl = CacheControl.maxAge(Duration.ZERO).sMaxAge(sharedMaxAge);
     }
 
     @GetMapping
-    public ResponseEntity<List<BookDTO>> getRecommendations(@RequestParam(value = "count", defaultValue = "5") int count) {
+    public ResponseEntity<List<BookDTO>> getRecommendations(@RequestParam(value = "count", defaultValue = "5") int count,
+                                                            @RequestParam(value = "seed", required = false) Long seed,
+                                                            @RequestParam(value = "weighted", defaultValue = "false") boolean weighted) {
         try {
-            List<BookDTO> recommendations = recommendationService.getRandomRecommendations(count);
-            return ResponseEntity.ok(recommendations);
+            List<BookDTO> recommendations = recommendationService.getRandomRecommendations(count, seed, weighted);
+            if (seed == null) {
+                // A fresh draw per request; only seeded draws are repeatable enough to cache.
+                return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(recommendations);
+            }
+            return ResponseEntity.ok().cacheControl(sharedCacheControl).body(recommendations);
         } catch (Exception e) {
             logger.error("Error in getRecommendations", e);
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
@@ -36,18 +50,42 @@ public class RecommendationController {
     public ResponseEntity<List<BookDTO>> getRecommendationsByAuthor(@PathVariable("authorName") String authorName) {
         try {
             List<BookDTO> recommendations = recommendationService.getRecommendationsByAuthor(authorName);
-            return ResponseEntity.ok(recommendations);
+            return ResponseEntity.ok().cacheControl(sharedCacheControl).body(recommendations);
         } catch (Exception e) {
             logger.error("Error in getRecommendationsByAuthor", e);
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
 
+    @GetMapping("/popular")
+    public ResponseEntity<List<BookDTO>> getMostBorrowed(@RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok().cacheControl(sharedCacheControl).body(recommendationService.getMostBorrowed(limit));
+    }
+
+    @GetMapping("/popular/{bookId}/also-borrowed")
+    public ResponseEntity<List<BookDTO>> getAlsoBorrowed(@PathVariable("bookId") Long bookId,
+                                                         @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok().cacheControl(sharedCacheControl).body(recommendationService.getAlsoBorrowed(bookId, limit));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<BookDTO>> search(@RequestParam("q") String query,
+                                                @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok().cacheControl(sharedCacheControl).body(recommendationService.search(query, limit));
+    }
+
     @GetMapping("/recent")
-    public ResponseEntity<List<BookDTO>> getRecentPublications() {
+    public ResponseEntity<List<BookDTO>> getRecentPublications(WebRequest request) {
         try {
+            String eTag = recommendationService.getRecentPublicationsETag();
+            if (eTag != null && request.checkNotModified(eTag)) {
+                return null;
+            }
             List<BookDTO> recommendations = recommendationService.getRecentPublications();
-            return ResponseEntity.ok(recommendations);
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(recommendations);
         } catch (Exception e) {
             logger.error("Error in getRecentPublications", e);
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
@@ -0,0 +1,17 @@
+package com.library.recommendation.diagnostics;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts every Feign call towards the current request's {@link RequestCost}.
+ */
+@Component
+public class RemoteCallCounter implements RequestInterceptor {
+
+    @Override
+    public void apply(RequestTemplate template) {
+        RequestCost.recordRemoteCall();
+    }
+}
@@ -0,0 +1,18 @@
+package com.library.recommendation.dto;
+
+public class BookPopularityDTO {
+    private Long bookId;
+    private String bookTitle;
+    private long loanCount;
+
+    public BookPopularityDTO() {}
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public String getBookTitle() { return bookTitle; }
+    public void setBookTitle(String bookTitle) { this.bookTitle = bookTitle; }
+
+    public long getLoanCount() { return loanCount; }
+    public void setLoanCount(long loanCount) { this.loanCount = loanCount; }
+}
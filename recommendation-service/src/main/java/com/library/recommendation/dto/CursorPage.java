@@ -0,0 +1,17 @@
+package com.library.recommendation.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CursorPage<T> {
+    private List<T> items = new ArrayList<>();
+    private String nextCursor;
+
+    public CursorPage() {}
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
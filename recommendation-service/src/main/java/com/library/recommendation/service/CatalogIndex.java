@@ -0,0 +1,210 @@
+package com.library.recommendation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.recommendation.client.BookClient;
+import com.library.recommendation.client.LoanClient;
+import com.library.recommendation.dto.BookDTO;
+import com.library.recommendation.dto.BookPopularityDTO;
+import com.library.recommendation.dto.CatalogChangeDTO;
+import com.library.recommendation.dto.ChangeBatch;
+import feign.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current {@link CatalogSnapshot}, a local replica of the catalog. The catalog
+ * is loaded in full once, then kept current by following book-service's change feed:
+ * each batch of changes is applied in place to a working copy of the books, and a new
+ * snapshot is built from it at most once per publish interval, so a busy feed costs one
+ * rebuild per interval rather than one per batch. A gap in the feed triggers another
+ * full load. Loan counts are refreshed on a fixed delay. Readers always see a complete
+ * snapshot; if an update fails the previous one keeps being served. A bulk import
+ * appears on the feed as a single marker, which also triggers a full load.
+ */
+@Component
+public class CatalogIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogIndex.class);
+    private static final int CATALOG_PAGE_SIZE = 500;
+    private static final int FEED_BATCH_SIZE = 1000;
+
+    private final BookClient bookClient;
+    private final LoanClient loanClient;
+    private final ObjectMapper objectMapper;
+    private final int popularitySize;
+    private final long feedWaitSeconds;
+    private final Request.Options feedOptions;
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+    // Guarded by this, like every snapshot swap: the working copy of the books, the change
+    // it reflects, and whether it holds changes the snapshot does not have yet.
+    private final Map<Long, BookDTO> books = new LinkedHashMap<>();
+    private long booksSeq = -1;
+    private boolean unpublished;
+    private Map<Long, Long> loanCounts = Map.of();
+    // Last change applied, or -1 before the catalog has been loaded.
+    private long lastSeq = -1;
+    private boolean failing;
+
+    public CatalogIndex(BookClient bookClient, LoanClient loanClient, ObjectMapper objectMapper,
+                        @Value("${library.catalog.popularity-size:1000}") int popularitySize,
+                        @Value("${library.catalog.feed-wait:20s}") Duration feedWait) {
+        this.bookClient = bookClient;
+        this.loanClient = loanClient;
+        this.objectMapper = objectMapper;
+        this.popularitySize = popularitySize;
+        this.feedWaitSeconds = feedWait.toSeconds();
+        this.feedOptions = new Request.Options(1, TimeUnit.SECONDS, feedWaitSeconds + 5, TimeUnit.SECONDS, true);
+    }
+
+    public CatalogSnapshot current() {
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${library.catalog.feed-interval:PT1S}")
+    public void follow() {
+        try {
+            if (lastSeq < 0) {
+                reload();
+                return;
+            }
+            ChangeBatch batch = bookClient.getChanges(lastSeq, FEED_BATCH_SIZE, feedWaitSeconds, feedOptions);
+            if (!batch.follows(lastSeq)) {
+                logger.warn("Gap in catalog changes after {} (feed at {}), reloading the catalog", lastSeq, batch.getLastSeq());
+                lastSeq = -1;
+                return;
+            }
+            if (batch.getChanges().stream().anyMatch(CatalogIndex::isImport)) {
+                logger.info("Catalog imported after {}, reloading the catalog", lastSeq);
+                lastSeq = -1;
+                return;
+            }
+            if (!batch.getChanges().isEmpty()) {
+                apply(batch.getChanges());
+            }
+            failing = false;
+        } catch (Exception e) {
+            if (!failing) {
+                logger.warn("Catalog update failed, keeping snapshot from {}: {}", snapshot.getLoadedAt(), e.getMessage());
+            }
+            failing = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.catalog.publish-interval:PT5S}")
+    public synchronized void publish() {
+        if (unpublished) {
+            publishSnapshot();
+            logger.debug("Published catalog snapshot at change {}", booksSeq);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.catalog.refresh-interval:PT1M}")
+    public void refresh() {
+        Map<Long, Long> counts = fetchLoanCounts();
+        synchronized (this) {
+            if (counts.equals(loanCounts)) {
+                return;
+            }
+            loanCounts = counts;
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Loads the whole catalog. Changes that commit during the walk are applied again
+     * from the feed afterwards, so the copy converges even if the walk saw some of them.
+     */
+    private void reload() {
+        long seq = bookClient.getChanges(0, 0, 0, feedOptions).getLastSeq();
+        List<BookDTO> catalog = bookClient.getAllBooksByPage(CATALOG_PAGE_SIZE);
+        synchronized (this) {
+            books.clear();
+            for (BookDTO book : catalog) {
+                books.put(book.getId(), book);
+            }
+            booksSeq = seq;
+            publishSnapshot();
+        }
+        lastSeq = seq;
+        failing = false;
+        logger.info("Catalog loaded with {} books at change {}", catalog.size(), seq);
+    }
+
+    private void apply(List<CatalogChangeDTO> changes) throws JsonProcessingException {
+        synchronized (this) {
+            for (CatalogChangeDTO change : changes) {
+                if ("BOOK".equals(change.getEntityType())) {
+                    if (change.getPayload() == null || change.getPayload().isNull()) {
+                        books.remove(change.getEntityId());
+                    } else {
+                        books.put(change.getEntityId(), objectMapper.treeToValue(change.getPayload(), BookDTO.class));
+                    }
+                } else if ("AUTHOR".equals(change.getEntityType()) && "UPDATED".equals(change.getType())) {
+                    String name = change.getPayload().path("name").asText(null);
+                    books.replaceAll((id, book) -> change.getEntityId().equals(book.getAuthorId())
+                            ? withAuthorName(book, name) : book);
+                }
+            }
+            booksSeq = changes.get(changes.size() - 1).getSeq();
+            unpublished = true;
+            lastSeq = booksSeq;
+        }
+        logger.debug("Applied {} catalog changes up to {}", changes.size(), lastSeq);
+    }
+
+    // Callers hold the lock.
+    private void publishSnapshot() {
+        snapshot = new CatalogSnapshot(new ArrayList<>(books.values()), loanCounts, Instant.now(), eTag(booksSeq));
+        unpublished = false;
+    }
+
+    // A bulk import writes one marker instead of a change per book.
+    private static boolean isImport(CatalogChangeDTO change) {
+        return "CATALOG".equals(change.getEntityType()) && "IMPORTED".equals(change.getType());
+    }
+
+    private static String eTag(long seq) {
+        return "\"catalog-" + seq + "\"";
+    }
+
+    private static BookDTO withAuthorName(BookDTO book, String name) {
+        BookDTO renamed = new BookDTO();
+        renamed.setId(book.getId());
+        renamed.setTitle(book.getTitle());
+        renamed.setIsbn(book.getIsbn());
+        renamed.setPublicationYear(book.getPublicationYear());
+        renamed.setAuthorId(book.getAuthorId());
+        renamed.setAuthorName(name);
+        return renamed;
+    }
+
+    /**
+     * Loan counts of the most borrowed books; popularity only weights random draws,
+     * so loan-service being unavailable just makes them uniform.
+     */
+    private Map<Long, Long> fetchLoanCounts() {
+        try {
+            Map<Long, Long> counts = new HashMap<>();
+            for (BookPopularityDTO popularity : loanClient.getMostBorrowed(popularitySize)) {
+                counts.put(popularity.getBookId(), popularity.getLoanCount());
+            }
+            return counts;
+        } catch (Exception e) {
+            logger.warn("Could not fetch loan counts: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.library.recommendation.service;
+
+import com.library.recommendation.dto.BookDTO;
+
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, pre-indexed copy of the catalog. A snapshot is built once per refresh
+ * and then shared by all request threads without locking.
+ */
+public final class CatalogSnapshot {
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(List.of(), Instant.EPOCH);
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final List<BookDTO> books;
+    private final Map<Long, BookDTO> booksById;
+    private final Instant loadedAt;
+    private final String catalogETag;
+
+    // Running totals of (1 + loan count) in catalog order; null when no loan counts are known.
+    private final double[] cumulativeWeights;
+
+    // Books that have a publication year, newest first, with the years in a parallel array.
+    private final BookDTO[] booksByYear;
+    private final int[] years;
+
+    // Normalized author name -> books, plus a trigram index over the distinct names.
+    private final Map<String, List<BookDTO>> booksByAuthor;
+    private final String[] authorKeys;
+    private final TrigramIndex authorIndex;
+
+    // Trigram index over normalized titles, by position in books.
+    private final TrigramIndex titleIndex;
+
+    public CatalogSnapshot(List<BookDTO> books, Instant loadedAt) {
+        this(books, Map.of(), loadedAt);
+    }
+
+    /**
+     * @param loanCounts loan count per book id, used to weight popular books in random draws
+     */
+    public CatalogSnapshot(List<BookDTO> books, Map<Long, Long> loanCounts, Instant loadedAt) {
+        this(books, loanCounts, loadedAt, null);
+    }
+
+    /**
+     * @param catalogETag tag of the catalog version these books reflect, or {@code null} if unknown
+     */
+    public CatalogSnapshot(List<BookDTO> books, Map<Long, Long> loanCounts, Instant loadedAt, String catalogETag) {
+        this.books = List.copyOf(books);
+        this.loadedAt = loadedAt;
+        this.catalogETag = catalogETag;
+
+        Map<Long, BookDTO> byId = new HashMap<>(this.books.size() * 2);
+        for (BookDTO book : this.books) {
+            byId.put(book.getId(), book);
+        }
+        this.booksById = byId;
+
+        if (loanCounts.isEmpty()) {
+            this.cumulativeWeights = null;
+        } else {
+            this.cumulativeWeights = new double[this.books.size()];
+            double total = 0;
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                total += 1 + loanCounts.getOrDefault(this.books.get(i).getId(), 0L);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        this.booksByYear = this.books.stream()
+                .filter(book -> book.getPublicationYear() != null)
+                .sorted(Comparator.comparing(BookDTO::getPublicationYear).reversed())
+                .toArray(BookDTO[]::new);
+        this.years = new int[booksByYear.length];
+        for (int i = 0; i < booksByYear.length; i++) {
+            years[i] = booksByYear[i].getPublicationYear();
+        }
+
+        Map<String, List<BookDTO>> byAuthor = new HashMap<>();
+        for (BookDTO book : this.books) {
+            if (book.getAuthorName() != null) {
+                byAuthor.computeIfAbsent(normalize(book.getAuthorName()), key -> new ArrayList<>()).add(book);
+            }
+        }
+        byAuthor.replaceAll((key, list) -> List.copyOf(list));
+        this.booksByAuthor = byAuthor;
+        this.authorKeys = byAuthor.keySet().toArray(String[]::new);
+        Arrays.sort(authorKeys);
+        this.authorIndex = new TrigramIndex(authorKeys);
+
+        String[] titles = new String[this.books.size()];
+        for (int i = 0; i < titles.length; i++) {
+            String title = this.books.get(i).getTitle();
+            titles[i] = title != null ? normalize(title) : "";
+        }
+        this.titleIndex = new TrigramIndex(titles);
+    }
+
+    public List<BookDTO> getBooks() { return books; }
+
+    public Instant getLoadedAt() { return loadedAt; }
+
+    public String getCatalogETag() { return catalogETag; }
+
+    public int size() { return books.size(); }
+
+    public BookDTO getBook(Long id) { return booksById.get(id); }
+
+    /**
+     * @return up to {@code count} distinct books in random order, in O(count)
+     */
+    public List<BookDTO> sample(int count, RandomGenerator random) {
+        return sample(count, random, false);
+    }
+
+    /**
+     * @param weighted favour frequently borrowed books; uniform if no loan counts are known
+     */
+    public List<BookDTO> sample(int count, RandomGenerator random, boolean weighted) {
+        int[] indexes = weighted && cumulativeWeights != null
+                ? RandomSampler.sampleWeighted(cumulativeWeights, count, random)
+                : RandomSampler.sample(books.size(), count, random);
+        List<BookDTO> result = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            result.add(books.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * @return books published in {@code year} or later, newest first
+     */
+    public List<BookDTO> publishedSince(int year) {
+        // First index whose year is older than the requested one.
+        int low = 0;
+        int high = years.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (years[mid] >= year) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(booksByYear).subList(0, low));
+    }
+
+    /**
+     * @return books whose author name contains {@code query}, ignoring case and accents,
+     *         best matching authors first
+     */
+    public List<BookDTO> byAuthor(String query) {
+        String key = normalize(query);
+        // An exact name still matches longer ones ("king" finds "Stephen King" too).
+        List<BookDTO> exact = booksByAuthor.getOrDefault(key, List.of());
+        List<BookDTO> result = new ArrayList<>(exact);
+        for (int position : authorIndex.search(key)) {
+            if (!authorKeys[position].equals(key)) {
+                result.addAll(booksByAuthor.get(authorKeys[position]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Matches {@code query} against titles and author names. Each book is ranked by
+     * its better match (exact, prefix, word prefix, substring), titles winning ties.
+     */
+    public List<BookDTO> search(String query, int limit) {
+        String key = normalize(query);
+        Map<BookDTO, Integer> rankByBook = new HashMap<>();
+        for (int position : titleIndex.search(key)) {
+            rankByBook.put(books.get(position), TrigramIndex.matchQuality(titleIndex.value(position), key) * 2);
+        }
+        for (int position : authorIndex.search(key)) {
+            int rank = TrigramIndex.matchQuality(authorKeys[position], key) * 2 + 1;
+            for (BookDTO book : booksByAuthor.get(authorKeys[position])) {
+                rankByBook.merge(book, rank, Math::min);
+            }
+        }
+        return rankByBook.entrySet().stream()
+                .sorted(Map.Entry.<BookDTO, Integer>comparingByValue()
+                        .thenComparing(entry -> entry.getKey().getId(), Comparator.nullsLast(Comparator.naturalOrder())))
+                .limit(Math.max(limit, 0))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        String folded = COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(folded).replaceAll(" ");
+    }
+}
@@ -0,0 +1,73 @@
+package com.library.recommendation.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws distinct indexes from {@code [0, n)} without touching the other n - k slots.
+ */
+public final class RandomSampler {
+
+    // Weighted draws that keep hitting already chosen items give up after this many tries per slot.
+    private static final int MAX_ATTEMPTS_PER_ITEM = 32;
+
+    private RandomSampler() {}
+
+    /**
+     * Partial Fisher–Yates over a virtual identity array: only swapped slots are
+     * materialized, so time and memory are O(k) and the result is in random order.
+     */
+    public static int[] sample(int n, int k, RandomGenerator random) {
+        int size = Math.min(n, Math.max(k, 0));
+        int[] result = new int[size];
+        Map<Integer, Integer> swapped = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            int j = i + random.nextInt(n - i);
+            int atJ = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+            result[i] = atJ;
+        }
+        return result;
+    }
+
+    /**
+     * Draws indexes with probability proportional to their weight, given as running
+     * totals ({@code cumulativeWeights[i]} is the sum of weights 0..i). Each draw is
+     * a binary search, so a sample costs O(k log n). Duplicates are redrawn; if the
+     * weight is concentrated on fewer than k items the result can be shorter than k.
+     */
+    public static int[] sampleWeighted(double[] cumulativeWeights, int k, RandomGenerator random) {
+        int n = cumulativeWeights.length;
+        double total = n == 0 ? 0 : cumulativeWeights[n - 1];
+        int size = Math.min(n, Math.max(k, 0));
+        if (total <= 0 || size == 0) {
+            return new int[0];
+        }
+        int[] result = new int[size];
+        Map<Integer, Boolean> chosen = new HashMap<>(size * 2);
+        int count = 0;
+        for (int attempts = 0; count < size && attempts < size * MAX_ATTEMPTS_PER_ITEM; attempts++) {
+            int index = firstGreaterThan(cumulativeWeights, random.nextDouble(total));
+            if (index < n && chosen.putIfAbsent(index, Boolean.TRUE) == null) {
+                result[count++] = index;
+            }
+        }
+        return count == size ? result : Arrays.copyOf(result, count);
+    }
+
+    private static int firstGreaterThan(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] > value) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
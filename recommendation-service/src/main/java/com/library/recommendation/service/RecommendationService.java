@@ -1,79 +1,102 @@
 package com.library.recommendation.service;
 
-import com.library.recommendation.client.BookClient;
+import com.library.recommendation.client.LoanClient;
 import com.library.recommendation.dto.BookDTO;
+import com.library.recommendation.dto.BookPopularityDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 @Service
 public class RecommendationService {
 
     private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
-    private final BookClient bookClient;
+    private final CatalogIndex catalogIndex;
+    private final LoanClient loanClient;
 
-    public RecommendationService(BookClient bookClient) {
-        this.bookClient = bookClient;
+    public RecommendationService(CatalogIndex catalogIndex, LoanClient loanClient) {
+        this.catalogIndex = catalogIndex;
+        this.loanClient = loanClient;
     }
 
     public List<BookDTO> getRandomRecommendations(int count) {
+        return getRandomRecommendations(count, null, false);
+    }
+
+    /**
+     * @param seed makes the draw reproducible for a given snapshot; {@code null} for a fresh draw
+     * @param weighted favour frequently borrowed books
+     */
+    public List<BookDTO> getRandomRecommendations(int count, Long seed, boolean weighted) {
+        CatalogSnapshot snapshot = catalogIndex.current();
+        if (snapshot.size() == 0) {
+            logger.warn("No books available for recommendations");
+            return Collections.emptyList();
+        }
+        RandomGenerator random = seed != null ? new SplittableRandom(seed) : ThreadLocalRandom.current();
+        return snapshot.sample(count, random, weighted);
+    }
+
+    public List<BookDTO> getMostBorrowed(int limit) {
         try {
-            List<BookDTO> allBooks = bookClient.getAllBooks();
-            if (allBooks == null || allBooks.isEmpty()) {
-                logger.warn("No books available for recommendations");
-                return Collections.emptyList();
-            }
-            
-            Collections.shuffle(allBooks);
-            return allBooks.stream()
-                    .limit(count)
-                    .collect(Collectors.toList());
+            return toBooks(loanClient.getMostBorrowed(limit));
         } catch (Exception e) {
-            logger.error("Error fetching random recommendations", e);
+            logger.error("Error fetching most borrowed books", e);
             return Collections.emptyList();
         }
     }
 
-    public List<BookDTO> getRecommendationsByAuthor(String authorName) {
+    public List<BookDTO> getAlsoBorrowed(Long bookId, int limit) {
         try {
-            List<BookDTO> allBooks = bookClient.getAllBooks();
-            if (allBooks == null) {
-                logger.warn("No books returned from book service");
-                return Collections.emptyList();
-            }
-            return allBooks.stream()
-                    .filter(book -> book.getAuthorName() != null 
-                            && book.getAuthorName().toLowerCase().contains(authorName.toLowerCase()))
-                    .collect(Collectors.toList());
+            return toBooks(loanClient.getAlsoBorrowed(bookId, limit));
         } catch (Exception e) {
-            logger.error("Error fetching recommendations by author: " + authorName, e);
+            logger.error("Error fetching books borrowed together with book " + bookId, e);
             return Collections.emptyList();
         }
     }
 
+    private List<BookDTO> toBooks(List<BookPopularityDTO> ranking) {
+        CatalogSnapshot snapshot = catalogIndex.current();
+        return ranking.stream()
+                .map(entry -> snapshot.getBook(entry.getBookId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public List<BookDTO> getRecommendationsByAuthor(String authorName) {
+        return catalogIndex.current().byAuthor(authorName);
+    }
+
+    public List<BookDTO> search(String query, int limit) {
+        return catalogIndex.current().search(query, limit);
+    }
+
+    /**
+     * @return an ETag for {@link #getRecentPublications()}, or {@code null} while the catalog version is unknown
+     */
+    public String getRecentPublicationsETag() {
+        String catalogETag = catalogIndex.current().getCatalogETag();
+        if (catalogETag == null) {
+            return null;
+        }
+        // The result also depends on the current year.
+        return catalogETag.substring(0, catalogETag.length() - 1) + "-" + java.time.Year.now().getValue() + "\"";
+    }
+
     /**
      * Get recent publications (last 10 years)
-     * @return list of recent books
+     * @return list of recent books, newest first
      */
     public List<BookDTO> getRecentPublications() {
         int currentYear = java.time.Year.now().getValue();
-        try {
-            List<BookDTO> allBooks = bookClient.getAllBooks();
-            if (allBooks == null) {
-                logger.warn("No books returned from book service");
-                return Collections.emptyList();
-            }
-            return allBooks.stream()
-                    .filter(book -> book.getPublicationYear() != null 
-                            && book.getPublicationYear() >= currentYear - 10)
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            logger.error("Error fetching recent publications", e);
-            return Collections.emptyList();
-        }
+        return catalogIndex.current().publishedSince(currentYear - 10);
     }
 }
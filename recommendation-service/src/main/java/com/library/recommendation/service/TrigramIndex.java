@@ -0,0 +1,154 @@
+package com.library.recommendation.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inverted index from character trigrams to the positions of the values that
+ * contain them. Values and queries are expected to be normalized with
+ * {@link CatalogSnapshot#normalize(String)} already.
+ *
+ * <p>A substring query intersects the posting lists of its trigrams, shortest
+ * first, and only verifies the surviving candidates. Queries shorter than a
+ * trigram have nothing to intersect and fall back to scanning the values.
+ */
+final class TrigramIndex {
+
+    static final int EXACT = 0;
+    static final int PREFIX = 1;
+    static final int WORD_PREFIX = 2;
+    static final int SUBSTRING = 3;
+    static final int NO_MATCH = -1;
+
+    private static final int[] NONE = new int[0];
+
+    private final String[] values;
+    private final Map<Long, int[]> postings;
+
+    TrigramIndex(String[] values) {
+        this.values = values;
+        Map<Long, IntList> lists = new HashMap<>();
+        for (int position = 0; position < values.length; position++) {
+            String value = values[position];
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                lists.computeIfAbsent(trigram(value, i), key -> new IntList()).addIfNotLast(position);
+            }
+        }
+        Map<Long, int[]> frozen = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, list) -> frozen.put(key, list.toArray()));
+        this.postings = frozen;
+    }
+
+    /**
+     * @return positions of the values containing {@code query}, best match first
+     *         (exact, then prefix, then word prefix, then any substring)
+     */
+    int[] search(String query) {
+        if (query.isEmpty()) {
+            return NONE;
+        }
+        int[] candidates = query.length() < 3 ? null : candidates(query);
+        int total = candidates != null ? candidates.length : values.length;
+        // (quality, position) packed into one long so a primitive sort ranks the matches.
+        long[] ranked = new long[total];
+        int count = 0;
+        for (int i = 0; i < total; i++) {
+            int position = candidates != null ? candidates[i] : i;
+            int match = matchQuality(values[position], query);
+            if (match != NO_MATCH) {
+                ranked[count++] = ((long) match << 32) | position;
+            }
+        }
+        Arrays.sort(ranked, 0, count);
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = (int) ranked[i];
+        }
+        return positions;
+    }
+
+    String value(int position) {
+        return values[position];
+    }
+
+    static int matchQuality(String value, String query) {
+        if (value.equals(query)) {
+            return EXACT;
+        }
+        if (value.startsWith(query)) {
+            return PREFIX;
+        }
+        int at = value.indexOf(query);
+        if (at < 0) {
+            return NO_MATCH;
+        }
+        for (; at >= 0; at = value.indexOf(query, at + 1)) {
+            if (at == 0 || !Character.isLetterOrDigit(value.charAt(at - 1))) {
+                return WORD_PREFIX;
+            }
+        }
+        return SUBSTRING;
+    }
+
+    private int[] candidates(String query) {
+        int trigrams = query.length() - 2;
+        int[][] lists = new int[trigrams][];
+        for (int i = 0; i < trigrams; i++) {
+            int[] list = postings.get(trigram(query, i));
+            if (list == null) {
+                return NONE;
+            }
+            lists[i] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static long trigram(String value, int offset) {
+        return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+    }
+
+    private static final class IntList {
+        private int[] items = new int[4];
+        private int size;
+
+        void addIfNotLast(int value) {
+            if (size > 0 && items[size - 1] == value) {
+                return;
+            }
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+}
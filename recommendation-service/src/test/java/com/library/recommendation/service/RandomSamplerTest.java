@@ -0,0 +1,83 @@
+package com.library.recommendation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Samples are distinct, in range and as long as the request allows; weighted draws skip zero weights.
+ */
+class RandomSamplerTest {
+
+    @Test
+    void drawsKDistinctIndexesInRange() {
+        RandomGenerator random = new SplittableRandom(42);
+        for (int n : new int[] {1, 5, 100, 1_000_000}) {
+            for (int k : new int[] {0, 1, 3, 5, 100}) {
+                int[] sample = RandomSampler.sample(n, k, random);
+                assertThat(sample).hasSize(Math.min(n, k));
+                assertThat(sample).doesNotHaveDuplicates();
+                assertThat(sample).allMatch(index -> index >= 0 && index < n);
+            }
+        }
+    }
+
+    @Test
+    void drawingEverythingIsAPermutation() {
+        int[] sample = RandomSampler.sample(50, 80, new SplittableRandom(7));
+        Arrays.sort(sample);
+        int[] all = new int[50];
+        Arrays.setAll(all, i -> i);
+        assertThat(sample).containsExactly(all);
+    }
+
+    @Test
+    void handlesEmptyAndNegativeRequests() {
+        assertThat(RandomSampler.sample(0, 5, new SplittableRandom(1))).isEmpty();
+        assertThat(RandomSampler.sample(10, -1, new SplittableRandom(1))).isEmpty();
+        assertThat(RandomSampler.sampleWeighted(new double[0], 5, new SplittableRandom(1))).isEmpty();
+    }
+
+    @Test
+    void sameSeedSameSample() {
+        assertThat(RandomSampler.sample(1000, 10, new SplittableRandom(3)))
+                .containsExactly(RandomSampler.sample(1000, 10, new SplittableRandom(3)));
+    }
+
+    @Test
+    void weightedDrawsAreDistinctAndSkipZeroWeights() {
+        // Weights 1, 0, 3, 0, 2: indexes 1 and 3 can never be drawn.
+        double[] cumulative = {1, 1, 4, 4, 6};
+        RandomGenerator random = new SplittableRandom(11);
+        for (int i = 0; i < 100; i++) {
+            int[] sample = RandomSampler.sampleWeighted(cumulative, 3, random);
+            assertThat(sample).doesNotHaveDuplicates().doesNotContain(1, 3);
+            assertThat(sample).hasSize(3);
+        }
+    }
+
+    @Test
+    void weightedDrawsStopShortWhenTooFewItemsHaveWeight() {
+        double[] cumulative = {0, 0, 5, 5};
+        int[] sample = RandomSampler.sampleWeighted(cumulative, 3, new SplittableRandom(5));
+        assertThat(sample).containsExactly(2);
+    }
+
+    @Test
+    void weightedDrawsFavourHeavyItems() {
+        // Index 1 carries 90% of the weight.
+        double[] cumulative = {5, 95, 100};
+        RandomGenerator random = new SplittableRandom(13);
+        int first = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (RandomSampler.sampleWeighted(cumulative, 1, random)[0] == 1) {
+                first++;
+            }
+        }
+        assertThat(first).isBetween(850, 950);
+    }
+}
@@ -0,0 +1,56 @@
+package com.library.recommendation.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Trigram candidates are verified and ranked exact, prefix, word prefix, then substring.
+ */
+class TrigramIndexTest {
+
+    private static final String[] TITLES = {
+            "the hobbit",           // 0: word prefix for "hobbit"
+            "hobbit",               // 1: exact
+            "hobbits and men",      // 2: prefix
+            "thehobbitonian",       // 3: substring
+            "dune",                 // 4: no match
+            "hobbit"                // 5: exact, later position
+    };
+
+    private final TrigramIndex index = new TrigramIndex(TITLES);
+
+    @Test
+    void ranksExactThenPrefixThenWordPrefixThenSubstring() {
+        assertThat(index.search("hobbit")).containsExactly(1, 5, 2, 0, 3);
+    }
+
+    @Test
+    void intersectsAllTrigramsOfTheQuery() {
+        assertThat(index.search("bits and")).containsExactly(2);
+        // Mid-word everywhere, so every hit ranks as a substring and ties keep position order.
+        assertThat(index.search("obbit")).containsExactly(0, 1, 2, 3, 5);
+    }
+
+    @Test
+    void unknownTrigramMatchesNothing() {
+        assertThat(index.search("xyz")).isEmpty();
+    }
+
+    @Test
+    void shortQueriesScanTheValues() {
+        assertThat(index.search("du")).containsExactly(4);
+        assertThat(index.search("h")).containsExactly(1, 2, 5, 0, 3);
+        assertThat(index.search("")).isEmpty();
+    }
+
+    @Test
+    void matchQualityLooksForAWordBoundaryBeforeEachOccurrence() {
+        assertThat(TrigramIndex.matchQuality("dune", "dune")).isEqualTo(TrigramIndex.EXACT);
+        assertThat(TrigramIndex.matchQuality("dune messiah", "dune")).isEqualTo(TrigramIndex.PREFIX);
+        assertThat(TrigramIndex.matchQuality("children of dune", "dune")).isEqualTo(TrigramIndex.WORD_PREFIX);
+        assertThat(TrigramIndex.matchQuality("xdune dune", "dune")).isEqualTo(TrigramIndex.WORD_PREFIX);
+        assertThat(TrigramIndex.matchQuality("xdune", "dune")).isEqualTo(TrigramIndex.SUBSTRING);
+        assertThat(TrigramIndex.matchQuality("dun", "dune")).isEqualTo(TrigramIndex.NO_MATCH);
+    }
+}